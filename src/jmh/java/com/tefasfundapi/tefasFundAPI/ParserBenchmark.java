@@ -0,0 +1,189 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
+import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.parser.FundsParser;
+import com.tefasfundapi.tefasFundAPI.parser.HistoryParser;
+import com.tefasfundapi.tefasFundAPI.parser.RowFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser'ların throughput ve allocation karşılaştırması.
+ * - tree*: eski yol (readTree + JsonNode üzerinde has/get), referans için.
+ * - stream*: JsonRowReader ile token bazlı okuma, yanıt baytları üzerinden
+ * (istemcilerin döndürdüğü biçim).
+ * - *SingleFund: RowFilter ile parse sırasında tek fona indirgeme.
+ *
+ * Yakalanmış yanıtlarla çalıştırmak için: -Dtefas.bench.history=/path/history.json
+ * ve -Dtefas.bench.performance=/path/performance.json. Verilmezse gerçek alan
+ * adlarıyla sentetik yanıt üretilir. Allocation için "-prof gc" ile çalıştırın
+ * (jmh profili varsayılan olarak ekler).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final RowFilter SINGLE_FUND = RowFilter.fundCodes(List.of("F7"));
+
+    /** Sentetik yanıttaki satır sayısı (ör. 2000 fon x 1 gün ya da 1 fon x 20000 gün). */
+    @Param({ "2000", "20000" })
+    public int rows;
+
+    private final HistoryParser historyParser = new HistoryParser();
+    private final FundsParser fundsParser = new FundsParser();
+
+    private String historyJson;
+    private String performanceJson;
+    private byte[] historyBytes;
+    private byte[] performanceBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        historyJson = load("tefas.bench.history", ParserBenchmark::syntheticHistory);
+        performanceJson = load("tefas.bench.performance", ParserBenchmark::syntheticPerformance);
+        historyBytes = historyJson.getBytes(StandardCharsets.UTF_8);
+        performanceBytes = performanceJson.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<PriceRowDto> streamHistory() {
+        return historyParser.toPriceRows(historyBytes);
+    }
+
+    /** Evren boyutlu yanıttan tek fon: eşleşmeyen satırlar DTO'ya dönüşmeden atlanır. */
+    @Benchmark
+    public List<PriceRowDto> streamHistorySingleFund() {
+        return historyParser.toPriceRows(historyBytes, SINGLE_FUND);
+    }
+
+    @Benchmark
+    public List<FundPerformanceDto> streamPerformanceSingleFund() {
+        return fundsParser.toPerformanceDtos(performanceBytes, SINGLE_FUND);
+    }
+
+    @Benchmark
+    public List<PriceRowDto> treeHistory() throws IOException {
+        List<PriceRowDto> out = new ArrayList<>();
+        for (JsonNode n : MAPPER.readTree(historyJson.trim()).get("data")) {
+            PriceRowDto dto = new PriceRowDto();
+            if (n.has("TARIH") && !n.get("TARIH").isNull()) {
+                dto.setDate(java.time.Instant.ofEpochMilli(Long.parseLong(n.get("TARIH").asText()))
+                        .atZone(java.time.ZoneId.systemDefault()).toLocalDate());
+            }
+            if (n.has("FONKODU") && !n.get("FONKODU").isNull()) {
+                dto.setFundCode(n.get("FONKODU").asText());
+            }
+            if (n.has("FONUNVAN") && !n.get("FONUNVAN").isNull()) {
+                dto.setFundName(n.get("FONUNVAN").asText());
+            }
+            if (n.has("FIYAT") && n.get("FIYAT").isNumber()) {
+                dto.setPrice(n.get("FIYAT").asDouble());
+            }
+            if (n.has("TEDPAYSAYISI") && n.get("TEDPAYSAYISI").isNumber()) {
+                dto.setOutstandingShares(n.get("TEDPAYSAYISI").asLong());
+            }
+            if (n.has("KISISAYISI") && n.get("KISISAYISI").isNumber()) {
+                dto.setHolderCount(n.get("KISISAYISI").asInt());
+            }
+            if (n.has("PORTFOYBUYUKLUK") && n.get("PORTFOYBUYUKLUK").isNumber()) {
+                dto.setTotalValue(n.get("PORTFOYBUYUKLUK").asDouble());
+            }
+            out.add(dto);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<FundPerformanceDto> streamPerformance() {
+        return fundsParser.toPerformanceDtos(performanceBytes);
+    }
+
+    @Benchmark
+    public List<FundPerformanceDto> treePerformance() throws IOException {
+        List<FundPerformanceDto> out = new ArrayList<>();
+        for (JsonNode n : MAPPER.readTree(performanceJson.trim()).get("data")) {
+            FundPerformanceDto dto = new FundPerformanceDto();
+            dto.setFundCode(n.has("FONKODU") ? n.get("FONKODU").asText() : null);
+            dto.setFundName(n.has("FONUNVAN") ? n.get("FONUNVAN").asText() : null);
+            dto.setUmbrellaType(n.has("FONTURACIKLAMA") ? n.get("FONTURACIKLAMA").asText() : null);
+            dto.setGetiri(n.has("GETIRIORANI") && n.get("GETIRIORANI").isNumber()
+                    ? n.get("GETIRIORANI").asDouble()
+                    : null);
+            out.add(dto);
+        }
+        return out;
+    }
+
+    private interface Generator {
+        String generate(int rows);
+    }
+
+    private String load(String property, Generator generator) throws IOException {
+        String path = System.getProperty(property);
+        if (path != null && !path.isBlank()) {
+            return Files.readString(Path.of(path), StandardCharsets.UTF_8);
+        }
+        return generator.generate(rows);
+    }
+
+    private static String syntheticHistory(int rows) {
+        StringBuilder sb = new StringBuilder(rows * 260).append("{\"draw\":0,\"recordsTotal\":").append(rows)
+                .append(",\"data\":[");
+        long day = 1_704_067_200_000L;
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"TARIH\":\"").append(day - (i % 250) * 86_400_000L)
+                    .append("\",\"FONKODU\":\"F").append(i % 2000)
+                    .append("\",\"FONUNVAN\":\"ÖRNEK PORTFÖY ÇOKLU VARLIK DEĞİŞKEN FON ").append(i % 2000)
+                    .append("\",\"FIYAT\":").append(30.373708 + i % 97)
+                    .append(",\"TEDPAYSAYISI\":").append(1096100.0 + i)
+                    .append(",\"KISISAYISI\":").append(755.0 + i % 300)
+                    .append(",\"PORTFOYBUYUKLUK\":").append(33292621.25 + i)
+                    .append(",\"BORSABULTENFIYAT\":\"-\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String syntheticPerformance(int rows) {
+        StringBuilder sb = new StringBuilder(rows * 160).append("{\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"FONKODU\":\"F").append(i)
+                    .append("\",\"FONUNVAN\":\"ÖRNEK PORTFÖY HİSSE SENEDİ FONU ").append(i)
+                    .append("\",\"FONTURACIKLAMA\":\"Hisse Senedi Şemsiye Fonu\"")
+                    .append(",\"GETIRIORANI\":").append(1.677 + i % 50)
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -5,6 +5,8 @@ import com.tefasfundapi.tefasFundAPI.exception.*;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,7 +15,9 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.NoHandlerFoundException;
+import java.time.Duration;
 import java.time.format.DateTimeParseException;
 
 import java.util.List;
@@ -27,6 +31,13 @@ import java.util.stream.Collectors;
 public class GlobalExceptionHandler {
         private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+        private final Duration asyncRequestTimeout;
+
+        public GlobalExceptionHandler(
+                        @Value("${spring.mvc.async.request-timeout:50s}") Duration asyncRequestTimeout) {
+                this.asyncRequestTimeout = asyncRequestTimeout;
+        }
+
         // ==================== Custom TEFAS Exceptions ====================
 
         @ExceptionHandler(FundNotFoundException.class)
@@ -51,6 +62,31 @@ public class GlobalExceptionHandler {
                                 .body(ErrorResponse.from(ex, request.getRequestURI()));
         }
 
+        /**
+         * Asenkron istek spring.mvc.async.request-timeout içinde tamamlanmazsa
+         * upstream zaman aşımı gibi 504 döner.
+         */
+        @ExceptionHandler(AsyncRequestTimeoutException.class)
+        public ResponseEntity<ErrorResponse> handleAsyncTimeout(AsyncRequestTimeoutException ex,
+                        HttpServletRequest request) {
+                long timeoutMs = asyncRequestTimeout.toMillis();
+                return handleTimeout(new TefasTimeoutException("async request " + request.getRequestURI(), timeoutMs,
+                                ex), request);
+        }
+
+        /**
+         * Kabul kuyruğu ya da executor doluyken istek beklemeden reddedilir;
+         * istemci Retry-After kadar sonra tekrar denemelidir.
+         */
+        @ExceptionHandler(TefasOverloadedException.class)
+        public ResponseEntity<ErrorResponse> handleOverloaded(TefasOverloadedException ex,
+                        HttpServletRequest request) {
+                log.warn("Load shed: {}", ex.getMessage());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                                .body(ErrorResponse.from(ex, request.getRequestURI()));
+        }
+
         @ExceptionHandler(TefasWafBlockedException.class)
         public ResponseEntity<ErrorResponse> handleWafBlocked(TefasWafBlockedException ex, HttpServletRequest request) {
                 log.error("WAF blocked request: {}", ex.getMessage());
@@ -0,0 +1,394 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Playwright;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Önceden başlatılmış Chromium örneklerinden oluşan havuz.
+ * - Her Browser kendi Playwright runtime'ına ve kendi {@link BrowserThread}'ine
+ * sahiptir; Playwright thread-safe olmadığı için Browser o thread'de başlatılır
+ * ve ona dokunan tüm iş ({@link Lease#call}, ısıtma, sağlık kontrolü, kapatma)
+ * o thread'de çalışır. Bir Browser aynı anda yalnızca tek bir isteğe kiralanır.
+ * - Kiralama try-with-resources ile yapılır, {@link Lease#close()} Browser'ı
+ * havuza geri bırakır.
+ * - Bağlantısı kopan ya da kullanım limitini dolduran Browser kapatılıp
+ * gerektiğinde yenisi açılır.
+ * - Her Browser, sayfa tipi başına WAF kontrolünü geçmiş bir context taşır;
+ * bu context'ler arka planda çerezleri bitmeden yenilenir.
+ * - Yeni context'ler önce {@link StorageStateStore}'daki kayıtlı oturumla
+ * açılmayı dener; böylece yeniden başlatmada WAF tekrar çözülmez.
+ * - Context'lere istek filtresi uygulanır (bkz. tefas.playwright.routes).
+ */
+@Component
+public class BrowserPool {
+    private static final Logger log = LoggerFactory.getLogger(BrowserPool.class);
+
+    private final PlaywrightConfig config;
+    private final StorageStateStore storageStateStore;
+    private final RouteMetrics routeMetrics;
+    private final UpstreamRateLimiter rateLimiter;
+    private final BlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+    private volatile boolean closed;
+
+    public BrowserPool(PlaywrightConfig config, StorageStateStore storageStateStore, RouteMetrics routeMetrics,
+            UpstreamRateLimiter rateLimiter) {
+        this.config = config;
+        this.storageStateStore = storageStateStore;
+        this.routeMetrics = routeMetrics;
+        this.rateLimiter = rateLimiter;
+        this.permits = new Semaphore(Math.max(1, config.getPool().getMaxSize()), true);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        int minSize = Math.min(config.getPool().getMinSize(), config.getPool().getMaxSize());
+        for (int i = 0; i < minSize; i++) {
+            try {
+                idle.offerLast(launch());
+            } catch (Exception e) {
+                // Uygulama browser olmadan da ayağa kalkabilmeli; ilk kiralamada tekrar denenir
+                log.warn("Browser pool warm-up failed ({} of {} started): {}", i, minSize, e.getMessage());
+                break;
+            }
+        }
+        log.info("Browser pool ready: idle={}, max={}", idle.size(), config.getPool().getMaxSize());
+    }
+
+    /**
+     * Havuzdan bir Browser kiralar. Boşta Browser yoksa ve limit dolmamışsa yenisi
+     * başlatılır; limit doluysa acquireTimeoutMs kadar beklenir.
+     *
+     * @throws TefasTimeoutException havuz süresi içinde boşalmazsa
+     */
+    public Lease acquire() {
+        return acquire(config.getPool().getAcquireTimeoutMs());
+    }
+
+    public Lease acquire(long timeoutMs) {
+        if (closed) {
+            throw new TefasClientException("Browser pool is shut down");
+        }
+        try {
+            if (!permits.tryAcquire(Math.max(0, timeoutMs), TimeUnit.MILLISECONDS)) {
+                throw new TefasTimeoutException("browserPool.acquire", timeoutMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TefasClientException("Interrupted while waiting for a pooled browser", e);
+        }
+
+        try {
+            PooledBrowser pooled = idle.pollFirst();
+            while (pooled != null && !pooled.isHealthy()) {
+                log.info("Discarding disconnected pooled browser");
+                pooled.close();
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                pooled = launch();
+            }
+            pooled.uses++;
+            return new Lease(this, pooled);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Boşta bekleyen Browser'ların ısınmış context'lerini kontrol eder: sağlıksız
+     * olanları atar, çerezleri refreshAheadMs içinde bitecek olanları yeniden
+     * ısıtır. Meşgul Browser'lara dokunulmaz; Browser'lar sırayla, tek tek
+     * kiralanır. Her Browser'ın işi kendi thread'inde çalışır.
+     * Zamanlama ve kabul kuyruğu (BULK) servis katmanındadır
+     * ({@code BrowserMaintenance}); havuz izni kabul edilmeden alınmaz.
+     */
+    public void refreshWarmContexts() {
+        int candidates = idle.size();
+        for (int i = 0; i < candidates && !closed; i++) {
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            PooledBrowser pooled = idle.pollLast();
+            if (pooled == null) {
+                permits.release();
+                return;
+            }
+            try {
+                pooled.thread.run(() -> {
+                    for (PageType type : PageType.values()) {
+                        refreshWarmContext(pooled, type);
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Background refresh of pooled browser failed: {}", e.getMessage());
+            } finally {
+                release(pooled);
+            }
+        }
+    }
+
+    private void refreshWarmContext(PooledBrowser pooled, PageType type) {
+        long now = System.currentTimeMillis();
+        WarmContext warm = pooled.contexts.get(type);
+        boolean refresh = warm == null
+                ? config.getSession().isPrewarm()
+                : !warm.isHealthy() || warm.needsRefresh(now, config.getSession().getRefreshAheadMs());
+        if (!refresh || !pooled.isHealthy()) {
+            return;
+        }
+        if (warm != null) {
+            pooled.contexts.remove(type).close();
+        }
+        try {
+            // Yenilemede kayıtlı oturum kullanılmaz; o da aynı çerezleri taşır
+            pooled.contexts.put(type, openWarmContext(pooled, type, warm == null, backgroundWarmDeadline()));
+        } catch (Exception e) {
+            log.warn("Background warm-up of {} context failed: {}", type, e.getMessage());
+        }
+    }
+
+    /**
+     * Arka plan ısıtmasının bütçesi: bir isteğe bağlı değildir, yine de her
+     * bekleme (navigasyon, WAF, networkidle) sınırlıdır.
+     */
+    private Deadline backgroundWarmDeadline() {
+        return Deadline.after(3L * config.getNavigationTimeoutMs() + config.getWafWaitMs());
+    }
+
+    private BrowserContext warmContext(PooledBrowser pooled, PageType type, Deadline deadline) {
+        WarmContext warm = pooled.contexts.get(type);
+        if (warm != null && !warm.isExpired(System.currentTimeMillis())) {
+            return warm.context();
+        }
+        if (warm != null) {
+            pooled.contexts.remove(type).close();
+        }
+        log.info("No warm {} context available, warming on request path ({})", type, deadline);
+        warm = openWarmContext(pooled, type, true, deadline);
+        pooled.contexts.put(type, warm);
+        return warm.context();
+    }
+
+    private WarmContext openWarmContext(PooledBrowser pooled, PageType type, boolean useStored, Deadline deadline) {
+        String stored = useStored
+                ? storageStateStore.load().map(StorageStateStore.StoredState::storageState).orElse(null)
+                : null;
+        // Isıtmadaki her sayfa yüklemesi token'ını WarmContext içinde, navigasyondan hemen önce alır
+        WarmContext warm = WarmContext.open(pooled.browser, type, config, stored, routeMetrics, rateLimiter,
+                deadline);
+        try {
+            storageStateStore.save(warm.context().storageState());
+        } catch (Exception e) {
+            log.debug("Could not export storage state of {} context: {}", type, e.getMessage());
+        }
+        return warm;
+    }
+
+    /** Havuzdaki boşta bekleyen Browser sayısı (sağlık/metrik amaçlı). */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /** Şu an kiralanmış Browser sayısı. */
+    public int leasedCount() {
+        return config.getPool().getMaxSize() - permits.availablePermits();
+    }
+
+    /**
+     * Browser'ı havuza geri bırakır. Karar (sağlık kontrolü, kapatma) Browser'ın
+     * thread'inde, kiralamadaki işten sonra çalışır; çağıran beklemez. İzin
+     * ancak Browser boşta listesine girdikten ya da kapatıldıktan sonra bırakılır.
+     */
+    private void release(PooledBrowser pooled) {
+        if (!pooled.thread.execute(() -> recycleOrReturn(pooled))) {
+            // Thread kapanmışsa Browser da kapanmıştır
+            permits.release();
+        }
+    }
+
+    private void recycleOrReturn(PooledBrowser pooled) {
+        try {
+            boolean recycle = closed
+                    || !pooled.isHealthy()
+                    || pooled.uses >= config.getPool().getMaxUsesPerBrowser();
+            if (recycle) {
+                log.debug("Recycling pooled browser after {} uses", pooled.uses);
+                pooled.close();
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Yeni bir thread açar; Playwright runtime'ı ve Chromium o thread'de başlatılır. */
+    private PooledBrowser launch() {
+        BrowserThread thread = new BrowserThread("tefas-browser-" + threadCounter.incrementAndGet());
+        try {
+            return thread.call(() -> {
+                long startTime = System.currentTimeMillis();
+                Playwright playwright = Playwright.create();
+                try {
+                    Browser browser = playwright.chromium().launch(PlaywrightHelper.createLaunchOptions(config));
+                    log.info("Launched pooled browser in {} ms", System.currentTimeMillis() - startTime);
+                    return new PooledBrowser(thread, playwright, browser);
+                } catch (RuntimeException e) {
+                    playwright.close();
+                    throw new TefasClientException("Failed to launch pooled browser: " + e.getMessage(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            thread.shutdown();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        List<PooledBrowser> drained = new ArrayList<>();
+        idle.drainTo(drained);
+        drained.forEach(PooledBrowser::close);
+        log.info("Browser pool shut down, closed {} idle browsers", drained.size());
+    }
+
+    /**
+     * Playwright runtime + üzerinde açılmış Chromium + sahibi olan thread.
+     * contexts ve uses yalnızca bu thread'den (ya da kiralayan thread'den,
+     * kiralama sırasında) değiştirilir.
+     */
+    static final class PooledBrowser {
+        private final BrowserThread thread;
+        private final Playwright playwright;
+        private final Browser browser;
+        private final Map<PageType, WarmContext> contexts = new EnumMap<>(PageType.class);
+        private int uses;
+
+        PooledBrowser(BrowserThread thread, Playwright playwright, Browser browser) {
+            this.thread = thread;
+            this.playwright = playwright;
+            this.browser = browser;
+        }
+
+        boolean isHealthy() {
+            try {
+                return thread.call(browser::isConnected);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        /** Context'leri, Browser'ı ve runtime'ı kendi thread'inde kapatır, ardından thread'i durdurur. */
+        void close() {
+            try {
+                thread.run(this::closeOnThread);
+            } catch (Exception e) {
+                log.debug("Error while closing pooled browser: {}", e.getMessage());
+            } finally {
+                thread.shutdown();
+            }
+        }
+
+        private void closeOnThread() {
+            contexts.values().forEach(WarmContext::close);
+            contexts.clear();
+            try {
+                browser.close();
+            } catch (Exception e) {
+                log.debug("Error while closing pooled browser: {}", e.getMessage());
+            }
+            try {
+                playwright.close();
+            } catch (Exception e) {
+                log.debug("Error while closing playwright runtime: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Kiralanmış Browser. Browser ve ondan türetilen context/page nesneleri
+     * yalnızca {@link #call} içinde, yani Browser'ın kendi thread'inde
+     * kullanılmalıdır. warmContext ve invalidate oraya kendileri devreder.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final BrowserPool pool;
+        private final PooledBrowser pooled;
+        private boolean released;
+
+        private Lease(BrowserPool pool, PooledBrowser pooled) {
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        public Browser browser() {
+            return pooled.browser;
+        }
+
+        public Playwright playwright() {
+            return pooled.playwright;
+        }
+
+        /**
+         * work'ü Browser'ın thread'inde çalıştırır ve sonucunu döner. İç içe
+         * çağrılar (ör. work içinden warmContext) yerinde çalışır.
+         */
+        public <T> T call(Supplier<T> work) {
+            return pooled.thread.call(work);
+        }
+
+        /**
+         * Sayfa tipi için WAF kontrolünü geçmiş context'i döner; yoksa ya da süresi
+         * dolmuşsa bu çağrıda isteğin bütçesiyle ısıtılır. Context havuza aittir,
+         * kapatılmamalıdır; istek kendi Page'ini açıp kapatır.
+         *
+         * @throws TefasTimeoutException ısıtma bütçe içinde bitmezse
+         */
+        public BrowserContext warmContext(PageType type, Deadline deadline) {
+            return call(() -> pool.warmContext(pooled, type, deadline));
+        }
+
+        /** WAF engeli görülen context'i atar; bir sonraki kiralamada yeniden ısıtılır. */
+        public void invalidate(PageType type) {
+            pooled.thread.run(() -> {
+                WarmContext warm = pooled.contexts.remove(type);
+                if (warm != null) {
+                    warm.close();
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                pool.release(pooled);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Tek bir havuz Browser'ına ait platform thread'i.
+ * - Playwright thread-safe değildir: Playwright nesnesi ve ondan türetilen
+ * Browser/Context/Page yalnızca onu oluşturan thread'den kullanılmalıdır.
+ * {@link BrowserPool} her Browser'ı kendi BrowserThread'inde başlatır ve
+ * o Browser'a dokunan tüm işi (istek, ısıtma, sağlık kontrolü, kapatma)
+ * bu thread'e devreder.
+ * - Çağıran thread sonucu bekler; virtual thread ise beklerken park eder,
+ * Playwright'ın bloklayan pipe okumaları taşıyıcıyı kilitlemez.
+ * - İşler sırayla çalışır; thread'in kendi içinden yapılan çağrılar beklemeden
+ * yerinde çalışır.
+ */
+public final class BrowserThread {
+    private static final Logger log = LoggerFactory.getLogger(BrowserThread.class);
+
+    private final ExecutorService executor;
+    private volatile Thread thread;
+
+    public BrowserThread(String name) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread created = new Thread(r, name);
+            created.setDaemon(true);
+            thread = created;
+            return created;
+        });
+    }
+
+    /** Çağıran thread bu Browser'ın thread'i mi. */
+    public boolean isCurrent() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * work'ü bu thread'de çalıştırır ve sonucunu bekler.
+     * İş içindeki RuntimeException'lar olduğu gibi fırlatılır.
+     *
+     * @throws TefasClientException thread kapatılmışsa ya da bekleyen thread kesilirse
+     */
+    public <T> T call(Supplier<T> work) {
+        if (isCurrent()) {
+            return work.get();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(work::get);
+        } catch (RejectedExecutionException e) {
+            throw new TefasClientException("Browser thread is shut down", e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // Çalışmakta olan Playwright çağrısı kesilmez; yalnızca başlamamışsa iptal edilir
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new TefasClientException("Interrupted while waiting for browser work", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new TefasClientException("Browser work failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    public void run(Runnable work) {
+        call(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * work'ü sıraya ekler, beklemez. Hata loglanır; thread'i öldürmez (yerine
+     * açılacak yeni thread Playwright'ın sahibi olmazdı).
+     *
+     * @return thread kapatılmışsa false
+     */
+    public boolean execute(Runnable work) {
+        try {
+            executor.execute(() -> {
+                try {
+                    work.run();
+                } catch (RuntimeException e) {
+                    log.warn("Browser work failed on {}: {}", Thread.currentThread().getName(), e.getMessage());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /** Sıradaki işler bittikten sonra thread'i durdurur. */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
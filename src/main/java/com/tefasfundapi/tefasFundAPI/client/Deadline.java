@@ -0,0 +1,60 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+
+/**
+ * Tek bir isteğin toplam süre bütçesi.
+ * Servis katmanında oluşturulur, client'lara ve PlaywrightHelper adımlarına
+ * geçirilir. Her adım kendi sabit bekleme/timeout değeri ile kalan sürenin
+ * küçüğünü kullanır; bütçe bittiğinde bir sonraki adım hemen
+ * {@link TefasTimeoutException} fırlatır.
+ */
+public final class Deadline {
+    private final long budgetMs;
+    private final long expiresAtNanos;
+
+    private Deadline(long budgetMs) {
+        this.budgetMs = budgetMs;
+        this.expiresAtNanos = System.nanoTime() + budgetMs * 1_000_000L;
+    }
+
+    public static Deadline after(long budgetMs) {
+        return new Deadline(Math.max(0, budgetMs));
+    }
+
+    public long budgetMs() {
+        return budgetMs;
+    }
+
+    public long remainingMs() {
+        return Math.max(0, (expiresAtNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return remainingMs() <= 0;
+    }
+
+    /**
+     * stepMs ile kalan sürenin küçüğünü döner.
+     * Playwright'ta 0 timeout "sınırsız" demek olduğundan sonuç en az 1 ms'dir.
+     *
+     * @throws TefasTimeoutException bütçe bitmişse
+     */
+    public long cap(long stepMs, String operation) {
+        long remaining = remainingMs();
+        if (remaining <= 0) {
+            throw new TefasTimeoutException(operation, budgetMs);
+        }
+        return Math.max(1, Math.min(stepMs, remaining));
+    }
+
+    /** Bütçe bitmişse {@link TefasTimeoutException} fırlatır. */
+    public void check(String operation) {
+        cap(0, operation);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[budget=" + budgetMs + "ms, remaining=" + remainingMs() + "ms]";
+    }
+}
@@ -0,0 +1,115 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+/**
+ * TEFAS API uçlarına browser açmadan, toplanmış WAF çerezleriyle form-encoded
+ * POST atan istemci.
+ * Her POST {@link UpstreamRateLimiter}'dan token alır.
+ * Bağlantılar paylaşılan {@link HttpClient} içinde havuzlanır (keep-alive).
+ */
+@Component
+public class DirectApiClient {
+    private static final Logger log = LoggerFactory.getLogger(DirectApiClient.class);
+
+    private final PlaywrightConfig config;
+    private final SessionHarvester harvester;
+    private final UpstreamRateLimiter rateLimiter;
+    private final HttpClient httpClient;
+
+    public DirectApiClient(PlaywrightConfig config, SessionHarvester harvester, UpstreamRateLimiter rateLimiter) {
+        this.config = config;
+        this.harvester = harvester;
+        this.rateLimiter = rateLimiter;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(config.getDirect().getConnectTimeoutMs()))
+                .build();
+    }
+
+    /** Doğrudan mod açık ve geçerli bir toplanmış oturum var mı? */
+    public boolean isAvailable() {
+        return config.getDirect().isEnabled() && harvester.current().isPresent();
+    }
+
+    /**
+     * Form-encoded POST atar ve JSON gövdesini ham bayt olarak döner.
+     * WAF sayfası ya da 401/403 gelirse oturumu geçersiz kılar ve hata fırlatır;
+     * çağıran browser yoluna düşmelidir.
+     *
+     * @param type     Referer olarak kullanılacak sayfa tipi
+     * @param apiUrl   Tam API URL'i (örn. config.getHistoryApiUrl())
+     * @param formBody {@link PlaywrightHelper#toFormEncoded} çıktısı
+     * @param deadline İstek bütçesi; timeout requestTimeoutMs ile kalan sürenin
+     *                 küçüğüdür
+     */
+    public byte[] post(PageType type, String apiUrl, String formBody, Deadline deadline) {
+        return rateLimiter.call("direct POST " + apiUrl, deadline, () -> send(type, apiUrl, formBody, deadline));
+    }
+
+    private byte[] send(PageType type, String apiUrl, String formBody, Deadline deadline) {
+        SessionHarvester.HarvestedSession session = harvester.current()
+                .orElseThrow(() -> new TefasClientException("No harvested TEFAS session available"));
+        long timeoutMs = deadline.cap(config.getDirect().getRequestTimeoutMs(), "direct POST " + apiUrl);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .header("Accept", "application/json, text/javascript, */*; q=0.01")
+                .header("X-Requested-With", "XMLHttpRequest")
+                .header("Origin", config.getBaseUrl())
+                .header("Referer", type.url(config))
+                .header("User-Agent", config.getUserAgent())
+                .header("Cookie", session.cookieHeader())
+                .POST(HttpRequest.BodyPublishers.ofString(formBody))
+                .build();
+
+        long startTime = System.currentTimeMillis();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            byte[] body = response.body();
+
+            if (status == 401 || status == 403) {
+                harvester.invalidate();
+                throw new TefasWafBlockedException("HTTP " + status + " from " + apiUrl);
+            }
+            try {
+                PlaywrightHelper.checkWafBlock(body);
+            } catch (TefasWafBlockedException e) {
+                harvester.invalidate();
+                throw e;
+            }
+            if (status < 200 || status >= 300) {
+                throw new TefasClientException("Upstream error " + status + " from " + apiUrl);
+            }
+
+            log.debug("Direct POST {} returned {} bytes in {} ms", apiUrl, body == null ? 0 : body.length,
+                    System.currentTimeMillis() - startTime);
+            return body;
+        } catch (HttpTimeoutException e) {
+            throw new TefasUpstreamTimeoutException("direct POST " + apiUrl, timeoutMs, e);
+        } catch (IOException e) {
+            throw new TefasClientException("Direct POST to " + apiUrl + " failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TefasClientException("Direct POST to " + apiUrl + " interrupted", e);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import com.microsoft.playwright.*;
 import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
 import com.tefasfundapi.tefasFundAPI.dto.FundReturnQuery;
 import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
-import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,15 +16,33 @@ import java.util.*;
  * Playwright tabanlı TEFAS istemcisi.
  * - WAF/oturum çerezleri için ilgili sayfaya gidip session oluşturur.
  * - Aynı session ile hedef API uçlarına (XHR) istek atar.
+ * - Doğrudan HTTP modu açıksa önce toplanmış oturumla browser'sız POST dener.
+ * - Karşılaştırma/fon listesi ve performans çağrıları ayrı devre kesicilerden
+ * ({@link UpstreamCircuitBreaker}) geçer.
  */
 @Component
 public class FundsClient {
     private static final Logger log = LoggerFactory.getLogger(FundsClient.class);
 
-    private final PlaywrightConfig config;
+    private static final java.time.format.DateTimeFormatter FORM_DATE = java.time.format.DateTimeFormatter
+            .ofPattern("dd.MM.yyyy");
 
-    public FundsClient(PlaywrightConfig config) {
+    private final PlaywrightConfig config;
+    private final BrowserPool browserPool;
+    private final DirectApiClient directApiClient;
+    private final SessionHarvester sessionHarvester;
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamCircuitBreaker circuitBreaker;
+
+    public FundsClient(PlaywrightConfig config, BrowserPool browserPool, DirectApiClient directApiClient,
+            SessionHarvester sessionHarvester, UpstreamRateLimiter rateLimiter,
+            UpstreamCircuitBreaker circuitBreaker) {
         this.config = config;
+        this.browserPool = browserPool;
+        this.directApiClient = directApiClient;
+        this.sessionHarvester = sessionHarvester;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /*
@@ -35,56 +52,47 @@ public class FundsClient {
      */
 
     /** /api/DB/BindComparisonFundReturns çağrısı (form-encoded). */
-    public String fetchComparisonFundReturns(FundReturnQuery q) {
-        try (Playwright pw = Playwright.create()) {
-            log.debug("fetchComparisonFundReturns started for query: {}", q);
-            try (Browser browser = pw.chromium().launch(PlaywrightHelper.createLaunchOptions(config))) {
-                BrowserContext ctx = browser.newContext(PlaywrightHelper.createContextOptions(config));
-                try {
-                    Page page = ctx.newPage();
-
-                    java.util.concurrent.CompletableFuture<Response> responseFuture = new java.util.concurrent.CompletableFuture<>();
-
-                    page.onResponse(response -> {
-                        String url = response.url();
-                        if (url.contains(config.getComparisonApiEndpoint())) {
-                            if (!responseFuture.isDone()) {
-                                responseFuture.complete(response);
-                            }
-                        }
-                    });
-
-                    PlaywrightHelper.navigateForSession(page, config.getComparisonReferer(), config);
-
-                    Thread.sleep(config.getPageLoadWaitMs());
-
-                    Response response = responseFuture.get(30, java.util.concurrent.TimeUnit.SECONDS);
+    public byte[] fetchComparisonFundReturns(FundReturnQuery q) {
+        return fetchComparisonFundReturns(q, Deadline.after(config.getRequestBudgetMs()));
+    }
 
-                    String json = response.text();
+    /** İstek bütçesiyle sınırlı {@link #fetchComparisonFundReturns(FundReturnQuery)}. */
+    public byte[] fetchComparisonFundReturns(FundReturnQuery q, Deadline deadline) {
+        return circuitBreaker.call(UpstreamEndpoint.COMPARISON, "fetchComparisonFundReturns", () -> {
+            byte[] direct = tryDirect(buildComparisonFormBody(q), deadline);
+            return direct != null ? direct : fetchComparisonFundReturnsViaBrowser(q, deadline);
+        });
+    }
 
-                    if (json.trim().startsWith("<")) {
-                        String preview = json.length() > 500 ? json.substring(0, 500) : json;
-                        throw new TefasWafBlockedException(preview);
-                    }
+    private byte[] fetchComparisonFundReturnsViaBrowser(FundReturnQuery q, Deadline deadline) {
+        try (BrowserPool.Lease lease = browserPool.acquire(
+                deadline.cap(config.getPool().getAcquireTimeoutMs(), "browserPool.acquire"))) {
+            return lease.call(() -> {
+                log.debug("fetchComparisonFundReturns started for query: {}", q);
+                BrowserContext ctx = lease.warmContext(PageType.COMPARISON, deadline);
+                Page page = ctx.newPage();
+                try {
+                    PlaywrightHelper.ResponseWithBody response =
+                            awaitComparisonLoad("fetchComparisonFundReturns", page, deadline);
+                    byte[] json = response.getBody();
 
                     if (response.status() == 401 || response.status() == 403) {
                         throw new TefasClientException("Unauthorized/Forbidden: " + response.status());
                     }
                     if (response.status() < 200 || response.status() >= 300) {
                         throw new TefasClientException(
-                                "Upstream error " + response.status() + " " + response.statusText());
+                                "Upstream error " + response.status() + " " + response.getResponse().statusText());
                     }
 
+                    sessionHarvester.offerIfMissing(ctx);
                     return json;
+                } catch (TefasWafBlockedException e) {
+                    lease.invalidate(PageType.COMPARISON);
+                    throw e;
                 } finally {
-                    ctx.close();
+                    page.close();
                 }
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new TefasClientException("TEFAS/BindComparisonFundReturns interrupted", e);
-        } catch (java.util.concurrent.TimeoutException e) {
-            throw new TefasTimeoutException("fetchComparisonFundReturns", 30000, e);
+            });
         } catch (TefasWafBlockedException e) {
             throw e;
         } catch (TefasClientException e) {
@@ -107,186 +115,139 @@ public class FundsClient {
      * gerçekte ne gönderiliyorsa birebir buraya yaz.
      * 
      */
-    public String fetchFundPerformance(LocalDate start, LocalDate end) {
-        try (Playwright pw = Playwright.create()) {
-            log.debug("fetchFundPerformance started for fundCode={}, start={}, end={}", start, end);
+    public byte[] fetchFundPerformance(LocalDate start, LocalDate end) {
+        return fetchFundPerformance(start, end, Deadline.after(config.getRequestBudgetMs()));
+    }
 
-            BrowserType.LaunchOptions launchOptions = PlaywrightHelper.createLaunchOptions(config)
-                    .setHeadless(config.isHeadless());
+    /** İstek bütçesiyle sınırlı {@link #fetchFundPerformance(LocalDate, LocalDate)}. */
+    public byte[] fetchFundPerformance(LocalDate start, LocalDate end, Deadline deadline) {
+        return circuitBreaker.call(UpstreamEndpoint.PERFORMANCE, "fetchFundPerformance", () -> {
+            byte[] direct = tryDirect(buildPerformanceFormBody(start, end), deadline);
+            return direct != null ? direct : fetchFundPerformanceViaBrowser(start, end, deadline);
+        });
+    }
 
-            try (Browser browser = pw.chromium().launch(launchOptions)) {
-                BrowserContext ctx = browser.newContext(PlaywrightHelper.createContextOptions(config));
-                try {
-                    Page page = ctx.newPage();
+    private byte[] fetchFundPerformanceViaBrowser(LocalDate start, LocalDate end, Deadline deadline) {
+        try (BrowserPool.Lease lease = browserPool.acquire(
+                deadline.cap(config.getPool().getAcquireTimeoutMs(), "browserPool.acquire"))) {
+            return lease.call(() -> {
+                log.debug("fetchFundPerformance started for start={}, end={}", start, end);
 
+                BrowserContext ctx = lease.warmContext(PageType.COMPARISON, deadline);
+                Page page = ctx.newPage();
+                try {
                     PlaywrightHelper.setupRequestLogger(page, config.getComparisonApiEndpoint());
-                    PlaywrightHelper.navigateAndWaitForWaf(page, config.getComparisonReferer(), config);
-                    PlaywrightHelper.fillDateFields(page, start, end, config);
-
-                    log.info("Setting up response listener to capture button click response...");
-                    java.util.concurrent.BlockingQueue<PlaywrightHelper.ResponseWithBody> responseQueue = PlaywrightHelper
-                            .setupResponseListener(page, config.getComparisonApiEndpoint(), config);
-                    log.info("Response listener ready, queue size: {}", responseQueue.size());
-
-                    log.info("Clicking search button...");
-                    PlaywrightHelper.clickSearchButton(page, config);
-                    log.info("Button clicked, queue size: {}", responseQueue.size());
-
-                    Thread.sleep(2000);
-                    log.info("After 2s wait, queue size: {}", responseQueue.size());
-
-                    log.info("Starting waitForLastApiResponse...");
-                    String apiResponse = PlaywrightHelper.waitForLastApiResponse(
-                            page,
-                            responseQueue,
-                            config.getComparisonApiEndpoint(),
-                            config,
-                            5000,
-                            1);
-
-                    if (apiResponse.trim().startsWith("<")) {
-                        String preview = apiResponse.length() > 500 ? apiResponse.substring(0, 500) : apiResponse;
-                        throw new TefasWafBlockedException(preview);
+                    // Token, kiralamadan sonra ve her upstream isteğinin (sayfa, sorgu) hemen öncesinde alınır
+                    rateLimiter.run("fetchFundPerformance page", deadline,
+                            () -> PlaywrightHelper.navigateWarm(page, config.getComparisonReferer(), config, deadline));
+                    PlaywrightHelper.fillDateFields(page, start, end, config, deadline);
+
+                    PlaywrightHelper.ResponseWithBody response = rateLimiter.call("fetchFundPerformance", deadline,
+                            () -> {
+                                try (ResponseCollector collector = ResponseCollector.listen(page,
+                                        config.getComparisonApiEndpoint())) {
+                                    PlaywrightHelper.ResponseWithBody received = collector.awaitLast(
+                                            () -> PlaywrightHelper.clickSearchButton(page, config, deadline),
+                                            deadline.cap(config.getApiResponseTimeoutMs(), "waitForResponse"),
+                                            config.getResponseQuietPeriodMs());
+                                    PlaywrightHelper.checkWafBlock(received.getBody());
+                                    return received;
+                                }
+                            });
+                    byte[] apiResponse = response.getBody();
+
+                    if (response.status() < 200 || response.status() >= 300) {
+                        throw new TefasClientException(
+                                "Upstream error " + response.status() + " from " + response.url());
                     }
 
-                    log.debug("API response received, response length: {}", apiResponse.length());
+                    log.debug("API response received, response length: {} bytes", apiResponse.length);
+                    sessionHarvester.offerIfMissing(ctx);
                     return apiResponse;
 
+                } catch (TefasWafBlockedException e) {
+                    lease.invalidate(PageType.COMPARISON);
+                    throw e;
                 } finally {
-                    ctx.close();
+                    page.close();
                 }
-            } catch (TefasWafBlockedException e) {
-                throw e;
-            } catch (TefasClientException e) {
-                throw e;
-            }
+            });
+        } catch (TefasClientException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Unexpected error in fetchFundPerformance for fundCode={}, start={}, end={}", start, end, e);
+            log.error("Unexpected error in fetchFundPerformance for start={}, end={}", start, end, e);
             throw new TefasClientException("TEFAS/fetchFundPerformance failed: " + e.getMessage(), e);
         }
     }
 
-    /**
-     * Extracts fund performance data from table_fund_returns.
-     * 
-     * @param page     Playwright Page objesi
-     * @param fundCode Fon kodu (filtering için, null ise tüm fonlar)
-     * @param config   Playwright konfigürasyonu
-     * @return JSON string with fund performance data
-     */
-    public static String extractFundReturnsTableData(Page page, String fundCode, PlaywrightConfig config) {
-        try {
-            // Wait for table rows
-            page.waitForSelector("#table_fund_returns tbody tr:not(.dataTables_empty)",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
-
-            // Wait for DataTables to fully render
-            Thread.sleep(config.getTableDataExtractionWaitMs());
-
-            // Extract raw data
-            String rawJson = (String) page.evaluate("""
-                    (function() {
-                        const table = document.querySelector('#table_fund_returns');
-                        if (!table) {
-                            return JSON.stringify({ data: [] });
-                        }
-
-                        const rows = table.querySelectorAll('tbody tr');
-                        const data = [];
-
-                        rows.forEach(row => {
-                            if (row.classList.contains('dataTables_empty')) {
-                                return;
-                            }
-
-                            const cells = row.querySelectorAll('td');
-                            if (cells.length >= 4) {
-                                data.push({
-                                    fonKodu: cells[0].textContent.trim(),
-                                    fonAdi: cells[1].textContent.trim(),
-                                    semsiyeFonTuru: cells[2].textContent.trim(),
-                                    getiri: cells[3].textContent.trim()
-                                });
-                            }
-                        });
-
-                        return JSON.stringify({ data: data });
-                    })();
-                    """);
-
-            log.debug("Raw extracted JSON length: {}", rawJson.length());
-
-            // Filter by fund code if provided (in Java, not JavaScript)
-            if (fundCode != null && !fundCode.isBlank()) {
-                // Parse and filter JSON here if needed
-                // Or filter in JavaScript above
-            }
-
-            return rawJson;
-
-        } catch (Exception e) {
-            throw new TefasClientException("Failed to extract fund returns table data: " + e.getMessage(), e);
-        }
-    }
-
     /*
      * =======================================================================
      * Ortak yardımcılar
      * =======================================================================
      */
 
+    /**
+     * Karşılaştırma sayfasını yükler ve sayfanın kendiliğinden attığı
+     * BindComparisonFundReturns isteğinin yanıtını döndürür; ilk dolu yanıt
+     * yeterlidir. Token kiralamadan sonra, navigasyonun hemen öncesinde alınır.
+     */
+    private PlaywrightHelper.ResponseWithBody awaitComparisonLoad(String operation, Page page, Deadline deadline) {
+        return rateLimiter.call(operation, deadline, () -> {
+            try (ResponseCollector collector = ResponseCollector.listen(page, config.getComparisonApiEndpoint())) {
+                PlaywrightHelper.ResponseWithBody response = collector.awaitLast(
+                        () -> PlaywrightHelper.navigateWarm(page, config.getComparisonReferer(), config, deadline),
+                        deadline.cap(config.getApiResponseTimeoutMs(), "waitForResponse"),
+                        0);
+                PlaywrightHelper.checkWafBlock(response.getBody());
+                return response;
+            }
+        });
+    }
+
     /**
      * Sayfaya gidip /api/DB/BindComparisonFundReturns endpoint'ini dinler ve JSON
      * response döndürür.
      * Sayfada otomatik olarak tetiklenen API isteğini yakalar.
      */
-    public String fetchFunds() {
-        try (Playwright pw = Playwright.create()) {
-            try (Browser browser = pw.chromium().launch(PlaywrightHelper.createLaunchOptions(config))) {
-                BrowserContext ctx = browser.newContext(PlaywrightHelper.createContextOptions(config));
-                try {
-                    Page page = ctx.newPage();
-
-                    java.util.concurrent.CompletableFuture<Response> responseFuture = new java.util.concurrent.CompletableFuture<>();
-
-                    page.onResponse(response -> {
-                        String url = response.url();
-                        if (url.contains(config.getComparisonApiEndpoint())) {
-                            responseFuture.complete(response);
-                        }
-                    });
-
-                    PlaywrightHelper.navigateForSession(page, config.getComparisonReferer(), config);
-
-                    Thread.sleep(config.getPageLoadWaitMs());
-
-                    Response response = responseFuture.get(30, java.util.concurrent.TimeUnit.SECONDS);
+    public byte[] fetchFunds() {
+        return fetchFunds(Deadline.after(config.getRequestBudgetMs()));
+    }
 
-                    String json = response.text();
+    /** İstek bütçesiyle sınırlı {@link #fetchFunds()}. */
+    public byte[] fetchFunds(Deadline deadline) {
+        return circuitBreaker.call(UpstreamEndpoint.COMPARISON, "fetchFunds", () -> {
+            byte[] direct = tryDirect(buildFundsFormBody(null, List.of()), deadline);
+            return direct != null ? direct : fetchFundsViaBrowser(deadline);
+        });
+    }
 
-                    if (json.trim().startsWith("<")) {
-                        String preview = json.length() > 500 ? json.substring(0, 500) : json;
-                        throw new TefasWafBlockedException(preview);
-                    }
+    private byte[] fetchFundsViaBrowser(Deadline deadline) {
+        try (BrowserPool.Lease lease = browserPool.acquire(
+                deadline.cap(config.getPool().getAcquireTimeoutMs(), "browserPool.acquire"))) {
+            return lease.call(() -> {
+                BrowserContext ctx = lease.warmContext(PageType.COMPARISON, deadline);
+                Page page = ctx.newPage();
+                try {
+                    PlaywrightHelper.ResponseWithBody response = awaitComparisonLoad("fetchFunds", page, deadline);
+                    byte[] json = response.getBody();
 
                     if (response.status() == 401 || response.status() == 403) {
                         throw new TefasClientException("Unauthorized/Forbidden: " + response.status());
                     }
                     if (response.status() < 200 || response.status() >= 300) {
                         throw new TefasClientException(
-                                "Upstream error " + response.status() + " " + response.statusText());
+                                "Upstream error " + response.status() + " " + response.getResponse().statusText());
                     }
 
+                    sessionHarvester.offerIfMissing(ctx);
                     return json;
+                } catch (TefasWafBlockedException e) {
+                    lease.invalidate(PageType.COMPARISON);
+                    throw e;
                 } finally {
-                    ctx.close();
+                    page.close();
                 }
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new TefasClientException("TEFAS/fetchFunds interrupted", e);
-        } catch (java.util.concurrent.TimeoutException e) {
-            throw new TefasTimeoutException("fetchFunds", 30000, e);
+            });
         } catch (TefasWafBlockedException e) {
             throw e;
         } catch (TefasClientException e) {
@@ -297,6 +258,25 @@ public class FundsClient {
         }
     }
 
+    /**
+     * Doğrudan HTTP modu kullanılabiliyorsa comparison endpoint'ine POST atar.
+     * Başarısız olursa null döner; çağıran browser yoluna düşer.
+     */
+    private byte[] tryDirect(String formBody, Deadline deadline) {
+        if (!directApiClient.isAvailable()) {
+            return null;
+        }
+        try {
+            return directApiClient.post(PageType.COMPARISON, config.getComparisonApiUrl(), formBody, deadline);
+        } catch (TefasClientException e) {
+            if (deadline.isExpired()) {
+                throw e;
+            }
+            log.warn("Direct BindComparisonFundReturns call failed, falling back to browser: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /* ---------- Body builders ---------- */
 
     /** Comparison form body: Sniffer’da gördüğün alanları birebir kullanıyoruz. */
@@ -319,12 +299,13 @@ public class FundsClient {
     /**
      * Funds search body - Fon Karşılaştırma API formatını kullanıyor.
      * Belirli fon kodları için bilgi almak için fonturkod parametresi kullanılıyor.
+     * Sayfanın açılışta attığı dönemsel getiri isteğiyle aynı parametreler
+     * (calismatipi=1, tüm periyotlar) kullanılır.
      */
     private static String buildFundsFormBody(String query, List<String> codes) {
         Map<String, String> form = new LinkedHashMap<>();
-        // Tüm parametreleri boş bırak, sadece fon kodlarını gönder
-        form.put("calismatipi", "");
-        form.put("fontip", "");
+        form.put("calismatipi", "1");
+        form.put("fontip", "YAT");
         form.put("sfontur", "");
         form.put("kurucukod", "");
         form.put("fongrup", "");
@@ -333,8 +314,25 @@ public class FundsClient {
         // Fon kodlarını virgülle ayırarak gönder (örn: "TLY,ABC")
         form.put("fonturkod", codes == null || codes.isEmpty() ? "" : String.join(",", codes));
         form.put("fonunvantip", "");
-        form.put("strperiod", ""); // Periyot bilgisi gerekmiyorsa boş
-        form.put("islemdurum", "");
+        form.put("strperiod", "1,1,1,1,1,1,1");
+        form.put("islemdurum", "1");
+        return PlaywrightHelper.toFormEncoded(form);
+    }
+
+    /** Tarih aralığı bazlı getiri body'si (calismatipi=2), sayfadaki "Karşılaştır" ile aynı. */
+    private static String buildPerformanceFormBody(LocalDate start, LocalDate end) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("calismatipi", "2");
+        form.put("fontip", "YAT");
+        form.put("sfontur", "");
+        form.put("kurucukod", "");
+        form.put("fongrup", "");
+        form.put("bastarih", start.format(FORM_DATE));
+        form.put("bittarih", end.format(FORM_DATE));
+        form.put("fonturkod", "");
+        form.put("fonunvantip", "");
+        form.put("strperiod", "1,1,1,1,1,1,1");
+        form.put("islemdurum", "1");
         return PlaywrightHelper.toFormEncoded(form);
     }
 
@@ -2,8 +2,10 @@ package com.tefasfundapi.tefasFundAPI.client;
 
 import com.microsoft.playwright.*;
 import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasCircuitOpenException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
 
 import org.slf4j.Logger;
@@ -11,19 +13,41 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * TEFAS tarihsel veri (NAV) istemcisi.
- * WAF bypass için sayfa üzerinden response dinleme yaklaşımını kullanır.
+ * Doğrudan HTTP modu açıksa toplanmış oturumla BindHistoryInfo'ya POST atar;
+ * aksi halde (ya da WAF engelinde) sayfa üzerinden response dinleme
+ * yaklaşımını kullanır. Çağrılar history devre kesicisinden
+ * ({@link UpstreamCircuitBreaker}) geçer.
  */
 @Component
 public class HistoryClient {
     private static final Logger log = LoggerFactory.getLogger(HistoryClient.class);
 
-    private final PlaywrightConfig config;
+    private static final DateTimeFormatter FORM_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
-    public HistoryClient(PlaywrightConfig config) {
+    private final PlaywrightConfig config;
+    private final BrowserPool browserPool;
+    private final DirectApiClient directApiClient;
+    private final SessionHarvester sessionHarvester;
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamCircuitBreaker circuitBreaker;
+
+    public HistoryClient(PlaywrightConfig config, BrowserPool browserPool, DirectApiClient directApiClient,
+            SessionHarvester sessionHarvester, UpstreamRateLimiter rateLimiter,
+            UpstreamCircuitBreaker circuitBreaker) {
         this.config = config;
+        this.browserPool = browserPool;
+        this.directApiClient = directApiClient;
+        this.sessionHarvester = sessionHarvester;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -33,56 +57,97 @@ public class HistoryClient {
      * @param fundCode Fon kodu (örn: "AAK")
      * @param start    Başlangıç tarihi
      * @param end      Bitiş tarihi
-     * @return JSON string
+     * @return Ham JSON gövdesi (UTF-8 bayt)
      */
-    public String fetchHistoryJson(String fundCode, LocalDate start, LocalDate end) {
-        try (Playwright pw = Playwright.create()) {
-            log.debug("fetchHistoryJson started for fundCode={}, start={}, end={}", fundCode, start, end);
-            // Launch browser with configuration
-            BrowserType.LaunchOptions launchOptions = PlaywrightHelper.createLaunchOptions(config);
-            try (Browser browser = pw.chromium().launch(launchOptions)) {
-                BrowserContext ctx = browser.newContext(PlaywrightHelper.createContextOptions(config));
-                try {
-                    Page page = ctx.newPage();
+    public byte[] fetchHistoryJson(String fundCode, LocalDate start, LocalDate end) {
+        return fetchHistoryJson(fundCode, start, end, Deadline.after(config.getRequestBudgetMs()));
+    }
+
+    /**
+     * {@link #fetchHistoryJson(String, LocalDate, LocalDate)} ile aynı; tüm
+     * adımlar verilen istek bütçesiyle sınırlıdır.
+     *
+     * @throws TefasTimeoutException bütçe biterse
+     * @throws TefasCircuitOpenException history devresi açıksa
+     */
+    public byte[] fetchHistoryJson(String fundCode, LocalDate start, LocalDate end, Deadline deadline) {
+        return circuitBreaker.call(UpstreamEndpoint.HISTORY, "fetchHistoryJson",
+                () -> fetchHistoryJsonUnguarded(fundCode, start, end, deadline));
+    }
+
+    private byte[] fetchHistoryJsonUnguarded(String fundCode, LocalDate start, LocalDate end, Deadline deadline) {
+        if (directApiClient.isAvailable()) {
+            try {
+                return directApiClient.post(PageType.HISTORY, config.getHistoryApiUrl(),
+                        buildHistoryFormBody(fundCode, start, end), deadline);
+            } catch (TefasClientException e) {
+                if (deadline.isExpired()) {
+                    throw e;
+                }
+                log.warn("Direct BindHistoryInfo call failed, falling back to browser: {}", e.getMessage());
+            }
+        }
+        return fetchHistoryJsonViaBrowser(fundCode, start, end, deadline);
+    }
+
+    /**
+     * Birden fazla fonun geçmişini tek upstream çağrısıyla getirir.
+     * BindHistoryInfo fon kodu boşken tüm fonları döndürür; tek fon istenirse
+     * fon koduyla sorgulanır. Dönen JSON istenmeyen fonları da içerebilir,
+     * satırları fonlara ayırmak çağırana aittir.
+     */
+    public byte[] fetchHistoryJsonBatch(Collection<String> fundCodes, LocalDate start, LocalDate end,
+            Deadline deadline) {
+        String fundCode = fundCodes.size() == 1 ? fundCodes.iterator().next() : "";
+        log.debug("fetchHistoryJsonBatch for {} funds, upstream fonkod='{}'", fundCodes.size(), fundCode);
+        return fetchHistoryJson(fundCode, start, end, deadline);
+    }
 
+    private byte[] fetchHistoryJsonViaBrowser(String fundCode, LocalDate start, LocalDate end, Deadline deadline) {
+        try (BrowserPool.Lease lease = browserPool.acquire(
+                deadline.cap(config.getPool().getAcquireTimeoutMs(), "browserPool.acquire"))) {
+            return lease.call(() -> {
+                log.debug("fetchHistoryJson started for fundCode={}, start={}, end={}", fundCode, start, end);
+                BrowserContext ctx = lease.warmContext(PageType.HISTORY, deadline);
+                Page page = ctx.newPage();
+                try {
                     // Request logging for debugging (optional, can remove if not needed)
                     PlaywrightHelper.setupRequestLogger(page, config.getHistoryApiEndpoint());
-                    PlaywrightHelper.navigateAndWaitForWaf(page, config.getHistoryReferer(), config);
-                    PlaywrightHelper.fillDateFields(page, start, end, config);
-
-                    log.info("Setting up response listener to capture button click response...");
-                    java.util.concurrent.BlockingQueue<PlaywrightHelper.ResponseWithBody> responseQueue = PlaywrightHelper
-                            .setupResponseListener(page, config.getHistoryApiEndpoint(), config);
-                    log.info("Response listener ready, queue size: {}", responseQueue.size());
-
-                    log.info("Clicking search button...");
-                    PlaywrightHelper.clickSearchButton(page, config);
-                    Thread.sleep(2000);
-
-                    String apiResponse = PlaywrightHelper.waitForLastApiResponse(
-                            page,
-                            responseQueue,
-                            config.getHistoryApiEndpoint(),
-                            config,
-                            5000,
-                            1);
-
-                    if (apiResponse.trim().startsWith("<")) {
-                        String preview = apiResponse.length() > 500 ? apiResponse.substring(0, 500) : apiResponse;
-                        throw new TefasWafBlockedException(preview);
+                    // Token, kiralamadan sonra ve her upstream isteğinin (sayfa, sorgu) hemen öncesinde alınır
+                    rateLimiter.run("fetchHistoryJson page", deadline,
+                            () -> PlaywrightHelper.navigateWarm(page, config.getHistoryReferer(), config, deadline));
+                    PlaywrightHelper.fillDateFields(page, start, end, config, deadline);
+
+                    PlaywrightHelper.ResponseWithBody response = rateLimiter.call("fetchHistoryJson", deadline, () -> {
+                        try (ResponseCollector collector = ResponseCollector.listen(page,
+                                config.getHistoryApiEndpoint())) {
+                            PlaywrightHelper.ResponseWithBody received = collector.awaitLast(
+                                    () -> PlaywrightHelper.clickSearchButton(page, config, deadline),
+                                    deadline.cap(config.getApiResponseTimeoutMs(), "fetchHistoryJson"),
+                                    config.getResponseQuietPeriodMs());
+                            PlaywrightHelper.checkWafBlock(received.getBody());
+                            return received;
+                        }
+                    });
+                    byte[] apiResponse = response.getBody();
+
+                    if (response.status() < 200 || response.status() >= 300) {
+                        throw new TefasClientException(
+                                "Upstream error " + response.status() + " from " + response.url());
                     }
 
-                    log.debug("API response received, response length: {}", apiResponse.length());
+                    log.debug("API response received, response length: {} bytes", apiResponse.length);
+                    sessionHarvester.offerIfMissing(ctx);
                     return apiResponse;
+                } catch (TefasWafBlockedException e) {
+                    lease.invalidate(PageType.HISTORY);
+                    throw e;
                 } finally {
-                    ctx.close();
+                    page.close();
                 }
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new TefasClientException("TEFAS/fetchHistoryJson interrupted", e);
+            });
         } catch (com.microsoft.playwright.TimeoutError e) {
-            throw new TefasTimeoutException("fetchHistoryJson", config.getElementWaitTimeoutMs(), e);
+            throw new TefasUpstreamTimeoutException("fetchHistoryJson", deadline.budgetMs(), e);
         } catch (TefasClientException e) {
             // Re-throw custom exceptions as-is
             throw e;
@@ -93,55 +158,17 @@ public class HistoryClient {
         }
     }
 
-    /**
-     * Extracts raw table data from DOM and transforms it to API response format.
-     * JavaScript extracts raw text, Java transforms it via TableDataTransformer.
-     */
-    private String extractTableDataAsJson(Page page, String fundCode) {
-        try {
-            // Wait for filtered rows
-            page.waitForSelector("tbody tr:not(.dataTables_empty)",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
-
-            // Wait for DataTables to fully render and apply filter
-            Thread.sleep(config.getTableDataExtractionWaitMs());
-
-            // Extract raw data (simple JavaScript - just get text content)
-            String rawJson = (String) page.evaluate("""
-                    (function() {
-                        const rows = document.querySelectorAll('tbody tr');
-                        const data = [];
-
-                        rows.forEach(row => {
-                            if (row.classList.contains('dataTables_empty')) {
-                                return; // Skip empty rows
-                            }
-
-                            const cells = row.querySelectorAll('td');
-                            if (cells.length >= 7) {
-                                data.push({
-                                    tarih: cells[0].textContent.trim(),
-                                    fonKodu: cells[1].textContent.trim(),
-                                    fonUnvan: cells[2].textContent.trim(),
-                                    fiyat: cells[3].textContent.trim(),
-                                    paySayisi: cells[4].textContent.trim(),
-                                    kisiSayisi: cells[5].textContent.trim(),
-                                    toplamDeger: cells[6].textContent.trim()
-                                });
-                            }
-                        });
-
-                        return JSON.stringify({ data: data });
-                    })();
-                    """);
-
-            log.debug("Raw extracted JSON length: {}", rawJson.length());
-
-            // Transform using helper class
-            return TableDataTransformer.transformToApiFormat(rawJson, fundCode);
-
-        } catch (Exception e) {
-            throw new TefasClientException("Failed to extract table data: " + e.getMessage(), e);
-        }
+    /** BindHistoryInfo form body; fon kodu boşsa tüm fonlar döner. */
+    static String buildHistoryFormBody(String fundCode, LocalDate start, LocalDate end) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("fontip", "YAT");
+        form.put("sfontur", "");
+        form.put("fonkod", fundCode == null ? "" : fundCode.trim().toUpperCase(Locale.ROOT));
+        form.put("fongrup", "");
+        form.put("bastarih", start.format(FORM_DATE));
+        form.put("bittarih", end.format(FORM_DATE));
+        form.put("fonturkod", "");
+        form.put("fonunvantip", "");
+        return PlaywrightHelper.toFormEncoded(form);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+
+/**
+ * WAF oturumu açılan TEFAS sayfaları.
+ * Her sayfa tipi için ayrı bir ısınmış BrowserContext tutulur.
+ */
+public enum PageType {
+    HISTORY,
+    COMPARISON;
+
+    public String url(PlaywrightConfig config) {
+        return this == HISTORY ? config.getHistoryReferer() : config.getComparisonReferer();
+    }
+}
@@ -6,17 +6,19 @@ import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
 import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasNavigationException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -48,92 +50,184 @@ public final class PlaywrightHelper {
 
     // ==================== Navigation ====================
 
-    public static void navigateForSession(Page page, String url, PlaywrightConfig config) {
+    /**
+     * Sayfayı açar, yüklenmesini ve WAF kontrolünü (wafWaitMs) bekler.
+     * Her bekleme istek bütçesiyle sınırlıdır.
+     */
+    public static void navigateForSession(Page page, String url, PlaywrightConfig config, Deadline deadline) {
+        String operation = "navigate " + url;
+        try {
+            page.navigate(url, new Page.NavigateOptions()
+                    .setTimeout(deadline.cap(config.getNavigationTimeoutMs(), operation)));
+            page.waitForLoadState(LoadState.LOAD, new Page.WaitForLoadStateOptions()
+                    .setTimeout(deadline.cap(config.getNavigationTimeoutMs(), operation)));
+            page.waitForTimeout(deadline.cap(config.getWafWaitMs(), operation));
+        } catch (TefasTimeoutException e) {
+            throw e;
+        } catch (TimeoutError e) {
+            throw new TefasUpstreamTimeoutException(operation, config.getNavigationTimeoutMs(), e);
+        } catch (Exception e) {
+            throw new TefasNavigationException(url, e);
+        }
+    }
+
+    /** {@link #navigateForSession} sonrası ağ trafiği durulana kadar (bütçe içinde) bekler. */
+    public static void navigateAndWaitForWaf(Page page, String url, PlaywrightConfig config, Deadline deadline) {
+        navigateForSession(page, url, config, deadline);
+        try {
+            page.waitForLoadState(LoadState.NETWORKIDLE, new Page.WaitForLoadStateOptions()
+                    .setTimeout(deadline.cap(config.getNavigationTimeoutMs(), "networkidle " + url)));
+        } catch (TefasTimeoutException e) {
+            throw e;
+        } catch (TimeoutError e) {
+            throw new TefasUpstreamTimeoutException("networkidle " + url, config.getNavigationTimeoutMs(), e);
+        } catch (Exception e) {
+            throw new TefasNavigationException(url, e);
+        }
+    }
+
+    /**
+     * WAF çerezleri hazır (ısınmış) bir context'te sayfayı açar.
+     * wafWaitMs beklemesi yapılmaz, sayfanın yüklenmesi yeterlidir.
+     * Süre navigationTimeoutMs ile kalan bütçenin küçüğüdür.
+     */
+    public static void navigateWarm(Page page, String url, PlaywrightConfig config, Deadline deadline) {
+        navigateWarm(page, url, deadline.cap(config.getNavigationTimeoutMs(), "navigate " + url));
+    }
+
+    private static void navigateWarm(Page page, String url, long timeoutMs) {
         try {
-            page.navigate(url);
-            page.waitForLoadState(LoadState.LOAD,
-                    new Page.WaitForLoadStateOptions().setTimeout(config.getNavigationTimeoutMs()));
-            page.waitForTimeout(config.getWafWaitMs());
+            page.navigate(url, new Page.NavigateOptions().setTimeout(timeoutMs));
+            page.waitForLoadState(LoadState.LOAD, new Page.WaitForLoadStateOptions().setTimeout(timeoutMs));
+        } catch (TimeoutError e) {
+            throw new TefasUpstreamTimeoutException("navigate " + url, timeoutMs, e);
         } catch (Exception e) {
             throw new TefasNavigationException(url, e);
         }
     }
 
-    public static void navigateAndWaitForWaf(Page page, String url, PlaywrightConfig config)
-            throws InterruptedException {
-        navigateForSession(page, url, config);
-        page.waitForLoadState(LoadState.NETWORKIDLE);
+    // ==================== Network Filtering ====================
+
+    /**
+     * Context'teki tüm isteklere routes politikasını uygular: izinli olmayanlar
+     * iptal edilir. Context oluşturulduktan hemen sonra, ilk navigasyondan önce
+     * çağrılmalıdır.
+     *
+     * @param metrics Karar sayacı; null olabilir
+     */
+    public static void installRoutePolicy(BrowserContext context, PlaywrightConfig config, RouteMetrics metrics) {
+        PlaywrightConfig.Routes routes = config.getRoutes();
+        if (!routes.isEnabled()) {
+            return;
+        }
+        context.route("**/*", route -> {
+            Request request = route.request();
+            boolean allowed = isAllowedByRoutePolicy(request.url(), request.resourceType(), routes);
+            if (metrics != null) {
+                metrics.record(request.resourceType(), allowed);
+            }
+            if (allowed) {
+                route.resume();
+            } else {
+                log.trace("Blocked {} request: {}", request.resourceType(), request.url());
+                route.abort("blockedbyclient");
+            }
+        });
+    }
+
+    /** İstek, tipi engelli değilse ve host'u izinli host'lardan birine aitse geçer. */
+    static boolean isAllowedByRoutePolicy(String url, String resourceType, PlaywrightConfig.Routes routes) {
+        if (resourceType != null && routes.getBlockedResourceTypes().contains(resourceType)) {
+            return false;
+        }
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (host == null) {
+            // data:, blob: gibi ağa çıkmayan URL'ler
+            return true;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        for (String allowedHost : routes.getAllowedHosts()) {
+            String allowed = allowedHost.toLowerCase(Locale.ROOT);
+            if (host.equals(allowed) || host.endsWith("." + allowed)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // ==================== Form Interaction ====================
 
     public static void fillInputField(Page page, String selector, String value, String fieldName,
-            PlaywrightConfig config) {
+            PlaywrightConfig config, Deadline deadline) {
+        String operation = "fill " + fieldName;
         try {
             Locator locator = page.locator(selector).first();
-            locator.waitFor(new Locator.WaitForOptions().setTimeout(config.getElementWaitTimeoutMs()));
+            locator.waitFor(new Locator.WaitForOptions()
+                    .setTimeout(deadline.cap(config.getElementWaitTimeoutMs(), operation)));
             locator.clear();
-            Thread.sleep(config.getInputClearWaitMs());
+            page.waitForTimeout(deadline.cap(config.getInputClearWaitMs(), operation));
             locator.fill(value);
-            Thread.sleep(config.getInputFillWaitMs());
+            page.waitForTimeout(deadline.cap(config.getInputFillWaitMs(), operation));
 
             String actualValue = locator.inputValue();
             if (!actualValue.equals(value)) {
                 log.warn("{} value mismatch. Expected: {}, Got: {}", fieldName, value, actualValue);
             }
+        } catch (TefasTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             throw new TefasClientException(
                     "Failed to fill " + fieldName + " field with selector '" + selector + "': " + e.getMessage(), e);
         }
     }
 
-    public static void fillDateFields(Page page, LocalDate start, LocalDate end, PlaywrightConfig config) {
+    public static void fillDateFields(Page page, LocalDate start, LocalDate end, PlaywrightConfig config,
+            Deadline deadline) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
         String startDateStr = start.format(formatter);
         String endDateStr = end.format(formatter);
 
         try {
-            page.waitForSelector(config.getSelectors().getStartDate(),
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+            page.waitForSelector(config.getSelectors().getStartDate(), new Page.WaitForSelectorOptions()
+                    .setTimeout(deadline.cap(config.getElementWaitTimeoutMs(), "fillDateFields")));
 
-            fillInputField(page, config.getSelectors().getStartDate(), startDateStr, "Start Date", config);
-            fillInputField(page, config.getSelectors().getEndDate(), endDateStr, "End Date", config);
+            fillInputField(page, config.getSelectors().getStartDate(), startDateStr, "Start Date", config, deadline);
+            fillInputField(page, config.getSelectors().getEndDate(), endDateStr, "End Date", config, deadline);
 
             log.debug("Date fields filled: startDate={}, endDate={}", startDateStr, endDateStr);
+        } catch (TefasTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             throw new TefasClientException("Failed to fill date fields: " + e.getMessage(), e);
         }
     }
 
     // ==================== Response Waiting ====================
+    // Yanıt bekleme ResponseCollector'dadır.
 
     /**
-     * Sets up the response listener for a specific endpoint.
-     * Must be called BEFORE triggering the action that will cause the API call.
-     * 
-     * @param page     Playwright Page objesi
-     * @param endpoint API endpoint URL pattern
-     * @param config   Playwright konfigürasyonu
-     * @return BlockingQueue that will collect responses
-     */
-    /**
-     * Response wrapper class to cache the body since Playwright Response.text() can
-     * only be called once.
+     * Response wrapper class to cache the body since Playwright Response.body() can
+     * only be called once. Gövde ham UTF-8 bayt olarak tutulur; String'e çözülmez.
      */
     public static class ResponseWithBody {
         private final Response response;
-        private final String body;
+        private final byte[] body;
         private final String url;
         private final int status;
 
-        public ResponseWithBody(Response response, String body) {
+        public ResponseWithBody(Response response, byte[] body) {
             this.response = response;
             this.body = body;
             this.url = response.url();
             this.status = response.status();
         }
 
-        public String getBody() {
+        public byte[] getBody() {
             return body;
         }
 
@@ -150,224 +244,6 @@ public final class PlaywrightHelper {
         }
     }
 
-    public static java.util.concurrent.BlockingQueue<ResponseWithBody> setupResponseListener(
-            Page page,
-            String endpoint,
-            PlaywrightConfig config) {
-        log.info("Setting up response listener for endpoint: {}", endpoint);
-
-        java.util.concurrent.BlockingQueue<ResponseWithBody> responseQueue = new java.util.concurrent.LinkedBlockingQueue<>();
-
-        page.onResponse(response -> {
-            String url = response.url();
-            int status = response.status();
-
-            boolean matchesEndpoint = url.contains(endpoint) || url.contains("BindComparisonFundReturns");
-
-            if (matchesEndpoint && status == 200) {
-                try {
-                    log.info("Matched response, reading body... URL={}", url);
-                    String body = response.text();
-                    log.info("Body read successfully, length={}", body != null ? body.length() : 0);
-
-                    ResponseWithBody responseWithBody = new ResponseWithBody(response, body);
-                    boolean offered = responseQueue.offer(responseWithBody);
-
-                    log.info("Response queued: offered={}, URL={}, Status={}, Body length={}, Queue size={}",
-                            offered, url, status, body != null ? body.length() : 0, responseQueue.size());
-                } catch (Exception e) {
-                    log.error("Failed to read/queue response body from URL={}: {}", url, e.getMessage(), e);
-                }
-            }
-        });
-
-        return responseQueue;
-    }
-
-    /**
-     * Collects ALL responses from the endpoint and returns the LAST one.
-     * Useful when multiple POST requests are made to the same endpoint,
-     * and you need the final (filtered) result.
-     * 
-     * @param responseQueue   Queue that collects responses (from
-     *                        setupResponseListener)
-     * @param endpoint        API endpoint URL pattern (for logging)
-     * @param config          Playwright konfigürasyonu
-     * @param waitAfterLastMs How long to wait after receiving a response to ensure
-     *                        it's the last one
-     * @return Response body of the LAST response (non-empty)
-     * @throws TefasTimeoutException if no response arrives within timeout
-     * @throws TefasClientException  if waiting fails
-     */
-    public static String waitForLastApiResponse(
-            Page page,
-            java.util.concurrent.BlockingQueue<ResponseWithBody> responseQueue,
-            String endpoint,
-            PlaywrightConfig config,
-            long waitAfterLastMs) {
-        return waitForLastApiResponse(page, responseQueue, endpoint, config, waitAfterLastMs, 2);
-    }
-
-    public static String waitForLastApiResponse(
-            Page page,
-            java.util.concurrent.BlockingQueue<ResponseWithBody> responseQueue,
-            String endpoint,
-            PlaywrightConfig config,
-            long waitAfterLastMs,
-            int minResponseCount) { // Yeni parametre
-        try {
-            long startTime = System.currentTimeMillis();
-            long timeoutMs = Math.max(config.getElementWaitTimeoutMs(), 2000);
-
-            List<ResponseWithBody> allResponses = new ArrayList<>();
-            ResponseWithBody lastResponse = null;
-            long lastResponseTime = 0;
-
-            log.info("Collecting responses from endpoint (min: {}, max wait: {}s)...",
-                    minResponseCount, timeoutMs / 1000);
-
-            while (System.currentTimeMillis() - startTime < timeoutMs) {
-                // Playwright event loop'unu çalıştırmak için kısa bekleme
-                // Bu adım kritik: poll() metodunu doğrudan çağırmak yerine waitForTimeout
-                // kullanıyoruz
-                page.waitForTimeout(100);
-
-                ResponseWithBody responseWithBody = responseQueue.poll();
-
-                if (responseWithBody != null) {
-                    String body = responseWithBody.getBody();
-
-                    if (body != null && !body.trim().isEmpty() && !body.trim().equals("[]")) {
-                        allResponses.add(responseWithBody);
-                        lastResponse = responseWithBody;
-                        lastResponseTime = System.currentTimeMillis();
-
-                        log.info("Response #{} received: {} bytes",
-                                allResponses.size(), body.length());
-                    }
-                }
-
-                // Minimum response sayısına ulaştıysak ve waitAfterLastMs geçtiyse bitir
-                if (allResponses.size() >= minResponseCount &&
-                        lastResponse != null &&
-                        (System.currentTimeMillis() - lastResponseTime) >= waitAfterLastMs) {
-                    log.info("Received {} responses (min: {}), no more after {}ms, using last response",
-                            allResponses.size(), minResponseCount, waitAfterLastMs);
-                    break;
-                }
-            }
-
-            log.info("Main loop ended, checking for any remaining responses in queue...");
-            log.info("Current queue size: {}, allResponses collected: {}", responseQueue.size(),
-                    allResponses.size());
-
-            // Final check - drain any remaining responses
-            int nullCount = 0;
-            int maxNullsBeforeBreak = 3;
-
-            for (int i = 0; i < 10; i++) {
-                page.waitForTimeout(500); // Pump event loop
-                ResponseWithBody finalCheck = responseQueue.poll();
-
-                if (finalCheck != null) {
-                    nullCount = 0;
-                    String body = finalCheck.getBody();
-                    if (body != null && !body.trim().isEmpty() && !body.trim().equals("[]")) {
-                        allResponses.add(finalCheck);
-                        lastResponse = finalCheck;
-                        log.info("Response #{} received (final check #{}): {} bytes",
-                                allResponses.size(), i + 1, body.length());
-                        continue;
-                    }
-                } else {
-                    nullCount++;
-                    if (nullCount >= maxNullsBeforeBreak) {
-                        break;
-                    }
-                }
-            }
-
-            if (allResponses.isEmpty()) {
-                throw new TefasTimeoutException(
-                        "waitForLastApiResponse",
-                        timeoutMs,
-                        new Exception("No responses received from endpoint: " + endpoint));
-            }
-
-            if (allResponses.size() < minResponseCount) {
-                log.warn("Only received {} responses, expected at least {}",
-                        allResponses.size(), minResponseCount);
-            }
-
-            log.info("Collected {} responses total, returning the LAST one", allResponses.size());
-            ResponseWithBody finalResponse = allResponses.get(allResponses.size() - 1);
-            return finalResponse.getBody();
-
-        } catch (TefasTimeoutException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new TefasClientException(
-                    "Failed to wait for API response from " + endpoint + ": " + e.getMessage(),
-                    e);
-        }
-    }
-
-    /**
-     * Waits for a non-empty response from the queue.
-     * Must be called AFTER setupResponseListener and AFTER triggering the action.
-     * 
-     * @param page          Playwright Page objesi
-     * @param responseQueue Queue that collects responses (from
-     *                      setupResponseListener)
-     * @param endpoint      API endpoint URL pattern (for logging)
-     * @param config        Playwright konfigürasyonu
-     * @return Response body as string (non-empty)ç
-     * @throws TefasTimeoutException if no non-empty response arrives within timeout
-     * @throws TefasClientException  if waiting fails
-     */
-    public static String waitForApiResponse(
-            Page page,
-            java.util.concurrent.BlockingQueue<ResponseWithBody> responseQueue,
-            String endpoint,
-            PlaywrightConfig config) {
-        try {
-            long startTime = System.currentTimeMillis();
-            long timeoutMs = Math.max(config.getElementWaitTimeoutMs(), 30000);
-
-            while (System.currentTimeMillis() - startTime < timeoutMs) {
-                page.waitForTimeout(200); // Yield to event loop
-
-                ResponseWithBody responseWithBody = responseQueue.poll();
-
-                if (responseWithBody == null) {
-                    continue;
-                }
-
-                String body = responseWithBody.getBody();
-
-                if (body != null && !body.trim().isEmpty() && !body.trim().equals("[]")) {
-                    log.info("API response received: {} bytes", body.length());
-                    return body;
-                }
-            }
-
-            // Son kontrol
-            page.waitForTimeout(500);
-            ResponseWithBody finalResponse = responseQueue.poll();
-            if (finalResponse != null) {
-                String body = finalResponse.getBody();
-                if (body != null && !body.trim().isEmpty() && !body.trim().equals("[]")) {
-                    log.info("API response received after timeout: {} bytes", body.length());
-                    return body;
-                }
-            }
-
-            throw new TefasTimeoutException("waitForApiResponse timeout {}", timeoutMs);
-        } catch (Exception e) {
-            throw new TefasClientException("Failed to wait for API response: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Fills the fund code filter input (DataTables search box).
      * This filters the table client-side after it's loaded.
@@ -378,7 +254,8 @@ public final class PlaywrightHelper {
      * @param selector Optional selector. If null, uses config selector. If empty
      *                 string, skips filter.
      */
-    public static void fillFundCodeFilter(Page page, String fundCode, PlaywrightConfig config, String selector) {
+    public static void fillFundCodeFilter(Page page, String fundCode, PlaywrightConfig config, String selector,
+            Deadline deadline) {
         if (fundCode == null || fundCode.isBlank()) {
             log.debug("Fund code is empty, skipping filter");
             return;
@@ -409,15 +286,17 @@ public final class PlaywrightHelper {
                 return; // Skip if not found
             }
 
-            page.waitForSelector(finalSelector,
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+            page.waitForSelector(finalSelector, new Page.WaitForSelectorOptions()
+                    .setTimeout(deadline.cap(config.getElementWaitTimeoutMs(), "fillFundCodeFilter")));
 
             fillInputField(page, finalSelector, fundCode.trim(),
-                    "Fund Code Filter", config);
+                    "Fund Code Filter", config, deadline);
 
-            Thread.sleep(config.getFilterApplyWaitMs());
+            page.waitForTimeout(deadline.cap(config.getFilterApplyWaitMs(), "fillFundCodeFilter"));
 
             log.debug("Fund code filter filled: {} with selector: {}", fundCode, finalSelector);
+        } catch (TefasTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Failed to fill fund code filter (may not exist on this page): {}", e.getMessage());
             // Don't throw - just log warning and continue
@@ -425,30 +304,34 @@ public final class PlaywrightHelper {
     }
 
     // Overloaded method for backward compatibility (uses config selector)
-    public static void fillFundCodeFilter(Page page, String fundCode, PlaywrightConfig config) {
-        fillFundCodeFilter(page, fundCode, config, null);
+    public static void fillFundCodeFilter(Page page, String fundCode, PlaywrightConfig config, Deadline deadline) {
+        fillFundCodeFilter(page, fundCode, config, null, deadline);
     }
 
-    public static void clickSearchButton(Page page, PlaywrightConfig config) {
+    public static void clickSearchButton(Page page, PlaywrightConfig config, Deadline deadline) {
         try {
             String searchButtonSelector = config.getSelectors().getSearchButton();
             log.info("Attempting to click search button with selector: {}", searchButtonSelector);
 
             page.waitForSelector(searchButtonSelector,
                     new Page.WaitForSelectorOptions()
-                            .setTimeout(config.getElementWaitTimeoutMs()));
+                            .setTimeout(deadline.cap(config.getElementWaitTimeoutMs(), "clickSearchButton")));
 
             log.info("Button found, clicking...");
             page.click(searchButtonSelector,
-                    new Page.ClickOptions().setTimeout(config.getButtonClickTimeoutMs()));
+                    new Page.ClickOptions()
+                            .setTimeout(deadline.cap(config.getButtonClickTimeoutMs(), "clickSearchButton")));
 
             log.info("Search button clicked successfully: {}", searchButtonSelector);
 
+        } catch (TefasTimeoutException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Could not click button with selector '{}': {}", config.getSelectors().getSearchButton(),
                     e.getMessage());
 
             try {
+                deadline.check("clickSearchButton");
                 log.info("Trying JavaScript click fallback...");
                 boolean clicked = page.evaluate("""
                         (function() {
@@ -466,11 +349,11 @@ public final class PlaywrightHelper {
 
                 if (clicked) {
                     log.info("JavaScript click successful");
-                    Thread.sleep(config.getButtonClickWaitMs());
-                    log.info("Waiting {} ms for API call to be triggered...", config.getButtonClickWaitMs());
                 } else {
                     throw new TefasClientException("Could not find or click search button");
                 }
+            } catch (TefasTimeoutException jsError) {
+                throw jsError;
             } catch (Exception jsError) {
                 throw new TefasClientException("Failed to click search button: " + e.getMessage() +
                         ", JavaScript fallback also failed: " + jsError.getMessage(), jsError);
@@ -512,21 +395,23 @@ public final class PlaywrightHelper {
      * @throws TefasTimeoutException if table doesn't load within timeout
      * @throws TefasClientException  if waiting fails
      */
-    public static void waitForFundReturnsTable(Page page, PlaywrightConfig config) {
+    public static void waitForFundReturnsTable(Page page, PlaywrightConfig config, Deadline deadline) {
         try {
+            long waitMs = deadline.cap(config.getElementWaitTimeoutMs(), "waitForFundReturnsTable");
+
             // Wait for table structure
             page.waitForSelector("#table_fund_returns tbody",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+                    new Page.WaitForSelectorOptions().setTimeout(waitMs));
 
             // Wait for data rows to appear (not empty)
             page.waitForSelector("#table_fund_returns tbody tr:not(.dataTables_empty)",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+                    new Page.WaitForSelectorOptions().setTimeout(deadline.cap(waitMs, "waitForFundReturnsTable")));
 
             // Wait for at least one row with valid data (check for fund code in first cell)
             long startTime = System.currentTimeMillis();
             boolean hasValidData = false;
 
-            while (!hasValidData && (System.currentTimeMillis() - startTime) < config.getElementWaitTimeoutMs()) {
+            while (!hasValidData && (System.currentTimeMillis() - startTime) < waitMs) {
                 Object result = page.evaluate("""
                         (function() {
                             const table = document.querySelector('#table_fund_returns');
@@ -550,16 +435,16 @@ public final class PlaywrightHelper {
                 hasValidData = Boolean.TRUE.equals(result);
 
                 if (!hasValidData) {
-                    Thread.sleep(config.getRetryWaitMs());
+                    page.waitForTimeout(deadline.cap(config.getRetryWaitMs(), "waitForTable"));
                 }
             }
 
             if (!hasValidData) {
-                throw new TefasTimeoutException("waitForFundReturnsTable", config.getElementWaitTimeoutMs());
+                throw new TefasTimeoutException("waitForFundReturnsTable", waitMs);
             }
 
             // Additional wait for DataTables to finish processing
-            Thread.sleep(config.getTableLoadWaitMs());
+            page.waitForTimeout(deadline.cap(config.getTableLoadWaitMs(), "waitForFundReturnsTable"));
 
             log.info("Fund returns table loaded successfully with data rows");
 
@@ -580,22 +465,24 @@ public final class PlaywrightHelper {
      * @throws TefasTimeoutException if table doesn't load within timeout
      * @throws TefasClientException  if waiting fails
      */
-    public static void waitForTableToLoad(Page page, PlaywrightConfig config) {
+    public static void waitForTableToLoad(Page page, PlaywrightConfig config, Deadline deadline) {
         try {
+            long waitMs = deadline.cap(config.getElementWaitTimeoutMs(), "waitForTableToLoad");
+
             // Wait for table structure
             page.waitForSelector("table tbody",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+                    new Page.WaitForSelectorOptions().setTimeout(waitMs));
 
             // Wait for data rows to appear (not empty)
             page.waitForSelector("tbody tr:not(.dataTables_empty)",
-                    new Page.WaitForSelectorOptions().setTimeout(config.getElementWaitTimeoutMs()));
+                    new Page.WaitForSelectorOptions().setTimeout(deadline.cap(waitMs, "waitForTableToLoad")));
 
             // Wait for at least one row with valid data (date format check)
             // Use evaluate with retry logic instead of waitForFunction
             long startTime = System.currentTimeMillis();
             boolean hasValidData = false;
 
-            while (!hasValidData && (System.currentTimeMillis() - startTime) < config.getElementWaitTimeoutMs()) {
+            while (!hasValidData && (System.currentTimeMillis() - startTime) < waitMs) {
                 Object result = page.evaluate("""
                         (function() {
                             const rows = document.querySelectorAll('tbody tr:not(.dataTables_empty)');
@@ -616,16 +503,16 @@ public final class PlaywrightHelper {
                 hasValidData = Boolean.TRUE.equals(result);
 
                 if (!hasValidData) {
-                    Thread.sleep(config.getRetryWaitMs());
+                    page.waitForTimeout(deadline.cap(config.getRetryWaitMs(), "waitForTable"));
                 }
             }
 
             if (!hasValidData) {
-                throw new TefasTimeoutException("waitForTableToLoad", config.getElementWaitTimeoutMs());
+                throw new TefasTimeoutException("waitForTableToLoad", waitMs);
             }
 
             // Additional wait for DataTables to finish processing
-            Thread.sleep(config.getTableLoadWaitMs());
+            page.waitForTimeout(deadline.cap(config.getTableLoadWaitMs(), "waitForTableToLoad"));
 
             log.info("Table loaded successfully with data rows");
 
@@ -653,18 +540,42 @@ public final class PlaywrightHelper {
         ensureOk(response, "");
     }
 
-    public static void checkWafBlock(String responseText) {
-        if (responseText != null && responseText.trim().startsWith("<")) {
-            String preview = responseText.length() > 500
-                    ? responseText.substring(0, 500)
-                    : responseText;
-            throw new TefasWafBlockedException(preview);
+    /**
+     * HTML (WAF/hata sayfası) kontrolü; gövdeyi çözmeden yalnızca ilk boşluk
+     * olmayan bayta bakar.
+     */
+    public static void checkWafBlock(byte[] body) {
+        int first = firstNonWhitespace(body);
+        if (first >= 0 && body[first] == '<') {
+            throw new TefasWafBlockedException(preview(body, 500));
+        }
+    }
+
+    /** İlk boşluk olmayan baytın indeksi; gövde boşsa ya da yalnızca boşluksa -1. */
+    public static int firstNonWhitespace(byte[] body) {
+        if (body == null) {
+            return -1;
+        }
+        for (int i = 0; i < body.length; i++) {
+            // UTF-8'de ASCII dışı baytlar negatiftir, boşluk sayılmaz
+            if (body[i] < 0 || body[i] > ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Log ve hata mesajları için gövdenin yalnızca ilk maxBytes baytını çözer. */
+    public static String preview(byte[] body, int maxBytes) {
+        if (body == null) {
+            return null;
         }
+        return new String(body, 0, Math.min(body.length, maxBytes), StandardCharsets.UTF_8);
     }
 
-    public static String validateResponse(Response response) {
-        String text = response.text();
-        checkWafBlock(text);
+    public static byte[] validateResponse(Response response) {
+        byte[] body = response.body();
+        checkWafBlock(body);
 
         int status = response.status();
         if (status == 401 || status == 403) {
@@ -674,7 +585,7 @@ public final class PlaywrightHelper {
             throw new TefasClientException("Upstream error " + status + " " + response.statusText());
         }
 
-        return text;
+        return body;
     }
 
     // ==================== Form Encoding ====================
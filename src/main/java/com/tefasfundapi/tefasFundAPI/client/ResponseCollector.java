@@ -0,0 +1,149 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.TimeoutError;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Bir endpoint'e giden XHR yanıtlarını olay tabanlı toplar.
+ * - Bekleme {@link Page#waitForResponse} ile yapılır: eşleşen yanıt geldiği an
+ * döner, sabit uyku yoktur.
+ * - İlk dolu yanıttan sonra quietPeriodMs boyunca yeni yanıt gelmezse son
+ * yanıt döner (sayfa aynı endpoint'e birden fazla istek atabiliyor).
+ * - Bekleme aralarında gelen yanıtlar da page.onResponse ile kaçırılmaz.
+ * <p>
+ * Playwright olayları yalnızca sayfanın sahibi olan thread'de, Playwright
+ * çağrıları sırasında işlenir; sınıf thread-safe değildir.
+ */
+public final class ResponseCollector implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCollector.class);
+
+    private static final Runnable NO_ACTION = () -> {
+    };
+
+    private final Page page;
+    private final String endpoint;
+    private final Predicate<Response> matcher;
+    private final Consumer<Response> listener;
+    private final Deque<Response> arrived = new ArrayDeque<>();
+
+    private ResponseCollector(Page page, String endpoint) {
+        this.page = page;
+        this.endpoint = endpoint;
+        this.matcher = response -> response.url().contains(endpoint);
+        this.listener = response -> {
+            if (matcher.test(response)) {
+                arrived.addLast(response);
+            }
+        };
+        page.onResponse(listener);
+    }
+
+    /** Endpoint'i dinlemeye başlar; isteği tetikleyen aksiyondan önce çağrılmalıdır. */
+    public static ResponseCollector listen(Page page, String endpoint) {
+        return new ResponseCollector(page, endpoint);
+    }
+
+    /**
+     * action'ı çalıştırır ve endpoint'ten gelen son dolu yanıtı döner.
+     *
+     * @param action        İsteği tetikleyen aksiyon (tıklama, navigasyon)
+     * @param timeoutMs     İlk dolu yanıt için azami bekleme
+     * @param quietPeriodMs Son yanıttan sonra yeni yanıt için bekleme; 0 ise ilk
+     *                      dolu yanıtta döner
+     * @throws TefasUpstreamTimeoutException timeoutMs içinde dolu yanıt gelmezse
+     */
+    public PlaywrightHelper.ResponseWithBody awaitLast(Runnable action, long timeoutMs, long quietPeriodMs) {
+        long startTime = System.currentTimeMillis();
+        long deadline = startTime + timeoutMs;
+        PlaywrightHelper.ResponseWithBody last = null;
+        int count = 0;
+        Runnable trigger = action;
+
+        while (last == null || quietPeriodMs > 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            long waitMs = last == null ? remaining : Math.min(quietPeriodMs, remaining);
+            if (waitMs <= 0) {
+                break;
+            }
+
+            boolean gotNew = pump(trigger, waitMs);
+            trigger = NO_ACTION;
+
+            Response response;
+            while ((response = arrived.pollFirst()) != null) {
+                gotNew = true;
+                byte[] body = readBody(response);
+                if (hasContent(body)) {
+                    last = new PlaywrightHelper.ResponseWithBody(response, body);
+                    count++;
+                    log.debug("Response #{} from {} after {} ms: status={}, {} bytes", count, endpoint,
+                            System.currentTimeMillis() - startTime, last.status(), body.length);
+                }
+            }
+            if (!gotNew && last != null) {
+                break;
+            }
+        }
+
+        if (last == null) {
+            throw new TefasUpstreamTimeoutException("waitForResponse " + endpoint, timeoutMs);
+        }
+        log.info("Collected {} response(s) from {} in {} ms, using the last one", count, endpoint,
+                System.currentTimeMillis() - startTime);
+        return last;
+    }
+
+    /** Eşleşen bir yanıt gelene ya da waitMs dolana kadar olay döngüsünü çalıştırır. */
+    private boolean pump(Runnable trigger, long waitMs) {
+        try {
+            page.waitForResponse(matcher, new Page.WaitForResponseOptions().setTimeout(waitMs), trigger);
+            return true;
+        } catch (TimeoutError e) {
+            return false;
+        }
+    }
+
+    private byte[] readBody(Response response) {
+        try {
+            return response.body();
+        } catch (Exception e) {
+            log.warn("Could not read response body from {}: {}", response.url(), e.getMessage());
+            return null;
+        }
+    }
+
+    /** Boş, yalnızca boşluk ya da "[]" olmayan gövde; baytlar kopyalanmadan kontrol edilir. */
+    private static boolean hasContent(byte[] body) {
+        int first = PlaywrightHelper.firstNonWhitespace(body);
+        if (first < 0) {
+            return false;
+        }
+        if (body[first] != '[') {
+            return true;
+        }
+        int last = body.length - 1;
+        while (last > first && body[last] >= 0 && body[last] <= ' ') {
+            last--;
+        }
+        return !(last == first + 1 && body[last] == ']');
+    }
+
+    @Override
+    public void close() {
+        try {
+            page.offResponse(listener);
+        } catch (Exception e) {
+            log.debug("Could not remove response listener: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * İstek filtresinin kararlarını sayar.
+ * Metrik: tefas.playwright.requests{outcome=allowed|blocked, type=&lt;resourceType&gt;}
+ * Counter'lar (outcome, type) başına bir kez kaydedilip saklanır; her istekte
+ * yalnızca harita araması yapılır.
+ */
+@Component
+public class RouteMetrics {
+    private static final String METRIC = "tefas.playwright.requests";
+
+    private final MeterRegistry registry;
+    private final Map<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    private record Key(boolean allowed, String type) {
+    }
+
+    public RouteMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void record(String resourceType, boolean isAllowed) {
+        Key key = new Key(isAllowed, resourceType == null ? "other" : resourceType);
+        counters.computeIfAbsent(key, k -> Counter.builder(METRIC)
+                .tag("outcome", k.allowed() ? "allowed" : "blocked")
+                .tag("type", k.type())
+                .register(registry))
+                .increment();
+    }
+
+    public long allowedCount() {
+        return count(true);
+    }
+
+    public long blockedCount() {
+        return count(false);
+    }
+
+    private long count(boolean allowed) {
+        return (long) counters.entrySet().stream()
+                .filter(e -> e.getKey().allowed() == allowed)
+                .mapToDouble(e -> e.getValue().count())
+                .sum();
+    }
+}
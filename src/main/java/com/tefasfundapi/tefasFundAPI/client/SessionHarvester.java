@@ -0,0 +1,172 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.playwright.BrowserContext;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Doğrudan HTTP modu için gerçek bir browser'dan WAF oturumu toplar.
+ * - Periyodik olarak ({@code BrowserMaintenance}, kabul kuyruğundan BULK)
+ * havuzdan bir Browser kiralayıp ısınmış context'in storageState'ini dışa
+ * aktarır; çerezleri bitmek üzere olan context önce yeniden ısıtılır.
+ * - Browser yoluna düşülen isteklerde de aynı context'ten oturum tazelenir.
+ * - Toplanan oturum {@link StorageStateStore}'a yazılır, açılışta oradan
+ * yüklenir.
+ */
+@Component
+public class SessionHarvester {
+    private static final Logger log = LoggerFactory.getLogger(SessionHarvester.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final PlaywrightConfig config;
+    private final BrowserPool browserPool;
+    private final StorageStateStore storageStateStore;
+    private final AtomicReference<HarvestedSession> current = new AtomicReference<>();
+
+    public SessionHarvester(PlaywrightConfig config, BrowserPool browserPool, StorageStateStore storageStateStore) {
+        this.config = config;
+        this.browserPool = browserPool;
+        this.storageStateStore = storageStateStore;
+    }
+
+    /** Önceki çalışmadan kalan oturumu yükler; ilk istekler browser açmadan gidebilir. */
+    @PostConstruct
+    void loadStored() {
+        storageStateStore.load().ifPresent(stored -> {
+            try {
+                HarvestedSession session = fromStorageState(stored.storageState(), stored.savedAt());
+                if (!session.isExpired(System.currentTimeMillis())) {
+                    current.compareAndSet(null, session);
+                    log.info("Loaded stored session from {}, expires in {} s", storageStateStore.path(),
+                            (session.expiresAt() - System.currentTimeMillis()) / 1000);
+                }
+            } catch (TefasParseException e) {
+                log.warn("Ignoring unreadable stored session: {}", e.getMessage());
+            }
+        });
+    }
+
+    /** Süresi dolmamış oturum varsa döner. */
+    public Optional<HarvestedSession> current() {
+        HarvestedSession session = current.get();
+        if (session == null || session.isExpired(System.currentTimeMillis())) {
+            return Optional.empty();
+        }
+        return Optional.of(session);
+    }
+
+    /** WAF/401/403 sonrası çağrılır; bir sonraki istek browser yoluna düşer. */
+    public void invalidate() {
+        HarvestedSession previous = current.getAndSet(null);
+        if (previous != null) {
+            log.info("Harvested session invalidated (age {} s)",
+                    (System.currentTimeMillis() - previous.harvestedAt()) / 1000);
+        }
+    }
+
+    /**
+     * Havuzdan bir Browser kiralayıp ısınmış HISTORY context'inin oturumunu toplar.
+     * Context'in çerezleri bitmişse ya da bir sonraki toplamadan önce bitecekse
+     * context atılıp yeniden ısıtılır; süresi geçmiş oturum dağıtılmaz.
+     */
+    public HarvestedSession harvest() {
+        Deadline deadline = Deadline.after(config.getRequestBudgetMs());
+        try (BrowserPool.Lease lease = browserPool.acquire(
+                deadline.cap(config.getPool().getAcquireTimeoutMs(), "browserPool.acquire"))) {
+            return lease.call(() -> {
+                long now = System.currentTimeMillis();
+                HarvestedSession session = fromStorageState(
+                        lease.warmContext(PageType.HISTORY, deadline).storageState(), now);
+                long validUntil = now + Math.max(config.getSession().getRefreshAheadMs(),
+                        config.getDirect().getHarvestIntervalMs());
+                if (session.isExpired(validUntil)) {
+                    log.info("Warm HISTORY context cookies expire in {} s, rebuilding before harvest",
+                            Math.max(0, session.expiresAt() - now) / 1000);
+                    lease.invalidate(PageType.HISTORY);
+                    session = fromStorageState(lease.warmContext(PageType.HISTORY, deadline).storageState(),
+                            System.currentTimeMillis());
+                }
+                return accept(session);
+            });
+        }
+    }
+
+    /**
+     * Verilen context'in storageState'ini dışa aktarır ve güncel oturum yapar.
+     * Context'in Browser'ının thread'inde ({@link BrowserPool.Lease#call}) çağrılmalıdır.
+     */
+    public HarvestedSession offer(BrowserContext context) {
+        return accept(fromStorageState(context.storageState(), System.currentTimeMillis()));
+    }
+
+    private HarvestedSession accept(HarvestedSession session) {
+        current.set(session);
+        storageStateStore.save(session.storageState());
+        log.debug("Harvested session with {} cookie bytes, expires in {} s", session.cookieHeader().length(),
+                (session.expiresAt() - session.harvestedAt()) / 1000);
+        return session;
+    }
+
+    /** Oturum yoksa ya da süresi dolmuşsa verilen context'ten toplar. */
+    public void offerIfMissing(BrowserContext context) {
+        if (config.getDirect().isEnabled() && current().isEmpty()) {
+            try {
+                offer(context);
+            } catch (Exception e) {
+                log.debug("Could not harvest session from fallback context: {}", e.getMessage());
+            }
+        }
+    }
+
+    HarvestedSession fromStorageState(String storageState, long harvestedAt) {
+        try {
+            String host = URI.create(config.getBaseUrl()).getHost();
+            long expiresAt = harvestedAt + config.getDirect().getMaxSessionAgeMs();
+            StringBuilder cookieHeader = new StringBuilder();
+
+            JsonNode cookies = MAPPER.readTree(storageState).path("cookies");
+            for (JsonNode cookie : cookies) {
+                String domain = cookie.path("domain").asText("");
+                String bareDomain = domain.startsWith(".") ? domain.substring(1) : domain;
+                if (host == null || !host.endsWith(bareDomain)) {
+                    continue;
+                }
+                if (cookieHeader.length() > 0) {
+                    cookieHeader.append("; ");
+                }
+                cookieHeader.append(cookie.path("name").asText()).append('=').append(cookie.path("value").asText());
+
+                double expires = cookie.path("expires").asDouble(-1);
+                if (expires > 0) {
+                    expiresAt = Math.min(expiresAt, (long) (expires * 1000));
+                }
+            }
+            return new HarvestedSession(storageState, cookieHeader.toString(), harvestedAt, expiresAt);
+        } catch (Exception e) {
+            throw new TefasParseException("Failed to read harvested storage state: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Browser'dan dışa aktarılmış oturum: ham storageState ve ondan türetilen
+     * Cookie header'ı.
+     */
+    public record HarvestedSession(String storageState, String cookieHeader, long harvestedAt, long expiresAt) {
+        public boolean isExpired(long now) {
+            return now >= expiresAt || cookieHeader.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Toplanan WAF oturumunu (Playwright storageState: çerezler + localStorage)
+ * yerel dosyada tutar.
+ * - Dosya Playwright formatındadır; setStorageStatePath ile doğrudan okunabilir.
+ * - Yazma geçici dosya + atomik taşıma ile yapılır, yarım dosya okunmaz.
+ * - Kayıt zamanı dosyanın değişiklik zamanıdır; maxAgeMs'ten eski kayıt yok
+ * sayılır.
+ */
+@Component
+public class StorageStateStore {
+    private static final Logger log = LoggerFactory.getLogger(StorageStateStore.class);
+
+    private final PlaywrightConfig config;
+    private volatile String lastSaved;
+
+    public StorageStateStore(PlaywrightConfig config) {
+        this.config = config;
+    }
+
+    public Path path() {
+        return Paths.get(config.getSession().getStorageStatePath());
+    }
+
+    /** Süresi dolmamış kayıtlı oturum varsa döner. */
+    public Optional<StoredState> load() {
+        Path file = path();
+        try {
+            if (!Files.isRegularFile(file)) {
+                return Optional.empty();
+            }
+            long savedAt = Files.getLastModifiedTime(file).toMillis();
+            if (System.currentTimeMillis() - savedAt >= config.getSession().getMaxAgeMs()) {
+                log.debug("Stored storage state at {} is older than max age, ignoring", file);
+                return Optional.empty();
+            }
+            String json = Files.readString(file, StandardCharsets.UTF_8);
+            return json.isBlank() ? Optional.empty() : Optional.of(new StoredState(json, savedAt));
+        } catch (IOException e) {
+            log.warn("Could not read stored storage state from {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** storageState'i atomik olarak dosyaya yazar; içerik değişmediyse yazmaz. */
+    public void save(String storageState) {
+        if (storageState == null || storageState.isBlank() || storageState.equals(lastSaved)) {
+            return;
+        }
+        Path file = path().toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try {
+                Files.writeString(tmp, storageState, StandardCharsets.UTF_8);
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            lastSaved = storageState;
+            log.debug("Storage state persisted to {}", file);
+        } catch (IOException e) {
+            log.warn("Could not persist storage state to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** Dosyadan okunmuş storageState ve kayıt zamanı. */
+    public record StoredState(String storageState, long savedAt) {
+    }
+}
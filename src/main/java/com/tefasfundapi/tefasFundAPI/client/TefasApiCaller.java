@@ -5,6 +5,7 @@ import com.microsoft.playwright.options.RequestOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
 
@@ -13,7 +14,18 @@ public class TefasApiCaller {
 
     private static final String TARGET_API = "https://www.tefas.gov.tr/api/DB/BindHistoryInfo";
     private static final String REFERER = "https://www.tefas.gov.tr/TarihselVeriler.aspx";
-    private static final String STATE_FILE = "com/tefasfundapi/tefasFundAPI/client/storageState.json";
+    /** {@link StorageStateStore}'un varsayılan olarak yazdığı dosya. */
+    private static final String DEFAULT_STATE_FILE = "data/storageState.json";
+
+    private final Path stateFile;
+
+    public TefasApiCaller() {
+        this(Paths.get(DEFAULT_STATE_FILE));
+    }
+
+    public TefasApiCaller(Path stateFile) {
+        this.stateFile = stateFile;
+    }
 
     /**
      * BindHistoryInfo için programatik çağrı.
@@ -27,7 +39,7 @@ public class TefasApiCaller {
         try (Playwright pw = Playwright.create()) {
             APIRequestContext request = pw.request().newContext(
                     new APIRequest.NewContextOptions()
-                            .setStorageStatePath(Paths.get(STATE_FILE)) // cookie'ler otomatik eklenecek
+                            .setStorageStatePath(stateFile) // cookie'ler otomatik eklenecek
                             .setExtraHTTPHeaders(new java.util.HashMap<>() {
                                 {
                                     put("Referer", REFERER);
@@ -0,0 +1,175 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasCircuitOpenException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link UpstreamEndpoint} başına devre kesici.
+ * - CLOSED: çağrılar geçer; üst üste circuitBreaker.failureThreshold
+ * {@link TefasWafBlockedException}/{@link TefasUpstreamTimeoutException} devreyi
+ * açar, aradaki her başarı sayacı sıfırlar. Diğer hatalar sayılmaz; browser
+ * havuzu, kabul kuyruğu ya da istek bütçesi gibi yerel beklemelerin düz
+ * {@link TefasTimeoutException}'ı upstream hakkında bir şey söylemez.
+ * - OPEN: circuitBreaker.openMs boyunca çağrılar browser, kuyruk ya da token
+ * beklemeden {@link TefasCircuitOpenException} (503 + Retry-After) ile reddedilir.
+ * - HALF_OPEN: süre dolunca yalnızca bir deneme çağrısı geçer, diğerleri
+ * reddedilmeye devam eder. Deneme başarılıysa devre kapanır, WAF/zaman aşımıyla
+ * biterse yeniden açılır. Kesintiyi yeniden keşfetmek için en fazla bir
+ * çağrı (dolayısıyla en fazla bir browser) harcanır.
+ * Metrikler (endpoint etiketli): tefas.circuit.state (0 kapalı, 1 yarı açık,
+ * 2 açık), tefas.circuit.rejected.
+ */
+@Component
+public class UpstreamCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamCircuitBreaker.class);
+
+    private enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final PlaywrightConfig.CircuitBreaker settings;
+    private final Map<UpstreamEndpoint, Circuit> circuits = new EnumMap<>(UpstreamEndpoint.class);
+
+    public UpstreamCircuitBreaker(PlaywrightConfig config, MeterRegistry registry) {
+        this.settings = config.getCircuitBreaker();
+        for (UpstreamEndpoint endpoint : UpstreamEndpoint.values()) {
+            circuits.put(endpoint, new Circuit(endpoint, registry));
+        }
+    }
+
+    /**
+     * Devre izin veriyorsa work'ü çalıştırır ve sonucu devreye yansıtır.
+     *
+     * @throws TefasCircuitOpenException devre açıksa ya da deneme çağrısı sürüyorsa
+     */
+    public <T> T call(UpstreamEndpoint endpoint, String operation, Supplier<T> work) {
+        if (!settings.isEnabled()) {
+            return work.get();
+        }
+        Circuit circuit = circuits.get(endpoint);
+        boolean probe = circuit.acquire(operation);
+        try {
+            T result = work.get();
+            circuit.onSuccess(probe);
+            return result;
+        } catch (TefasWafBlockedException | TefasUpstreamTimeoutException e) {
+            circuit.onFailure(probe, e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            circuit.onIgnored(probe);
+            throw e;
+        }
+    }
+
+    /**
+     * Çağrı şu an reddedilecekse hemen fırlatır; deneme hakkını tüketmez.
+     * Servis katmanı kabul kuyruğuna girmeden önce çağırır.
+     *
+     * @throws TefasCircuitOpenException devre açıksa ya da deneme çağrısı sürüyorsa
+     */
+    public void checkAvailable(UpstreamEndpoint endpoint, String operation) {
+        if (settings.isEnabled()) {
+            circuits.get(endpoint).check(operation);
+        }
+    }
+
+    /** Tek endpoint'in durumu; tüm geçişler nesnenin kilidiyle yapılır. */
+    private final class Circuit {
+        private final UpstreamEndpoint endpoint;
+        private final Counter rejected;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openUntilNanos;
+        private boolean probeInFlight;
+
+        Circuit(UpstreamEndpoint endpoint, MeterRegistry registry) {
+            this.endpoint = endpoint;
+            String tag = endpoint.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("tefas.circuit.state", this, circuit -> circuit.stateValue())
+                    .tag("endpoint", tag).register(registry);
+            this.rejected = Counter.builder("tefas.circuit.rejected").tag("endpoint", tag).register(registry);
+        }
+
+        /** Çağrıya izin verir; deneme çağrısıysa true döner. */
+        synchronized boolean acquire(String operation) {
+            check(operation);
+            if (state == State.OPEN) {
+                state = State.HALF_OPEN;
+                log.info("Circuit {} half-open, probing with {}", endpoint, operation);
+            }
+            if (state == State.HALF_OPEN) {
+                probeInFlight = true;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void check(String operation) {
+            long remainingNanos = openUntilNanos - System.nanoTime();
+            boolean open = state == State.OPEN && remainingNanos > 0;
+            if (open || (state == State.HALF_OPEN && probeInFlight)) {
+                rejected.increment();
+                int retryAfterSeconds = (int) Math.max(1, Math.ceil(Math.max(0, remainingNanos) / 1e9));
+                throw new TefasCircuitOpenException(
+                        operation + " rejected: circuit " + endpoint + " is " + state, retryAfterSeconds);
+            }
+        }
+
+        synchronized void onSuccess(boolean probe) {
+            if (probe) {
+                probeInFlight = false;
+                state = State.CLOSED;
+                log.info("Circuit {} closed after successful probe", endpoint);
+            }
+            if (state == State.CLOSED) {
+                consecutiveFailures = 0;
+            }
+        }
+
+        synchronized void onFailure(boolean probe, RuntimeException error) {
+            if (probe) {
+                probeInFlight = false;
+                open(error);
+                return;
+            }
+            if (state == State.CLOSED && ++consecutiveFailures >= Math.max(1, settings.getFailureThreshold())) {
+                open(error);
+            }
+        }
+
+        synchronized void onIgnored(boolean probe) {
+            if (probe) {
+                // Deneme upstream hakkında bir şey söylemedi; sıradaki çağrı yeniden denesin
+                probeInFlight = false;
+            }
+        }
+
+        private void open(RuntimeException error) {
+            state = State.OPEN;
+            consecutiveFailures = 0;
+            openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.getOpenMs());
+            log.warn("Circuit {} opened for {} ms: {}", endpoint, settings.getOpenMs(), error.getMessage());
+        }
+
+        synchronized int stateValue() {
+            return state.ordinal();
+        }
+    }
+}
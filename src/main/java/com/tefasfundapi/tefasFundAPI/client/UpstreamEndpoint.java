@@ -0,0 +1,12 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+/**
+ * Devre kesicinin ayrı izlediği TEFAS uçları.
+ * Performans ve karşılaştırma aynı API'ye gider ama farklı sorgularla;
+ * biri bozulduğunda diğeri etkilenmesin diye ayrı tutulur.
+ */
+public enum UpstreamEndpoint {
+    HISTORY,
+    COMPARISON,
+    PERFORMANCE
+}
@@ -0,0 +1,149 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * TEFAS'a giden her çağrının (doğrudan POST, browser sorgusu, context ısıtma)
+ * önündeki token bucket. Token, upstream'e giden isteğin (navigasyon ya da
+ * POST) hemen öncesinde ve istek başına bir kez alınır; browser kiralama ve
+ * kabul kuyruğu beklemeleri token tutmaz.
+ * - Hız AIMD ile ayarlanır: başarılı her çağrı hızı increasePerSuccess kadar
+ * artırır, WAF engeli hızı decreaseFactor ile çarpar ve biriken token'ları
+ * siler. Aynı patlamadan gelen engeller decreaseHoldMs içinde tek düşüş sayılır.
+ * - Token beklemesi isteğin kalan bütçesini aşacaksa beklenmez;
+ * {@link TefasOverloadedException} (503 + Retry-After) fırlatılır.
+ * Metrikler: tefas.upstream.rate, tefas.upstream.throttle.wait,
+ * tefas.upstream.waf.blocks.
+ */
+@Component
+public class UpstreamRateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+
+    private final PlaywrightConfig.RateLimit settings;
+    private final Timer waitTimer;
+    private final Counter wafBlocks;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long holdDecreaseUntilNanos;
+
+    public UpstreamRateLimiter(PlaywrightConfig config, MeterRegistry registry) {
+        this.settings = config.getRateLimit();
+        this.rate = clamp(settings.getInitialRate());
+        this.tokens = Math.max(1, settings.getBurst());
+        this.lastRefillNanos = System.nanoTime();
+        Gauge.builder("tefas.upstream.rate", this, UpstreamRateLimiter::currentRate).register(registry);
+        this.waitTimer = Timer.builder("tefas.upstream.throttle.wait").register(registry);
+        this.wafBlocks = Counter.builder("tefas.upstream.waf.blocks").register(registry);
+    }
+
+    /**
+     * Token alıp work'ü çalıştırır; sonucu hıza yansıtır.
+     *
+     * @throws TefasOverloadedException token bütçe içinde alınamazsa
+     */
+    public <T> T call(String operation, Deadline deadline, Supplier<T> work) {
+        if (!settings.isEnabled()) {
+            return work.get();
+        }
+        acquire(operation, deadline);
+        try {
+            T result = work.get();
+            onSuccess();
+            return result;
+        } catch (TefasWafBlockedException e) {
+            onWafBlock(operation);
+            throw e;
+        }
+    }
+
+    /** Sonuç dönmeyen iş için {@link #call}. */
+    public void run(String operation, Deadline deadline, Runnable work) {
+        call(operation, deadline, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void acquire(String operation, Deadline deadline) {
+        long waitNanos = reserve(operation, deadline);
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TefasClientException("Interrupted while waiting for upstream rate limit", e);
+        }
+    }
+
+    /** Bir token ayırır ve beklenmesi gereken süreyi döner; bütçe yetmezse ayırmaz. */
+    private synchronized long reserve(String operation, Deadline deadline) {
+        refill(System.nanoTime());
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long waitNanos = (long) ((1 - tokens) / rate * 1e9);
+        if (TimeUnit.NANOSECONDS.toMillis(waitNanos) >= deadline.remainingMs()) {
+            int retryAfterSeconds = (int) Math.max(1, Math.ceil(waitNanos / 1e9));
+            throw new TefasOverloadedException(String.format("%s throttled: upstream rate %.2f/s", operation, rate),
+                    retryAfterSeconds);
+        }
+        // Negatif token: sonraki çağrılar bu borcun arkasında sıraya girer
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    private synchronized void onSuccess() {
+        refill(System.nanoTime());
+        rate = clamp(rate + settings.getIncreasePerSuccess());
+    }
+
+    private synchronized void onWafBlock(String operation) {
+        wafBlocks.increment();
+        long now = System.nanoTime();
+        refill(now);
+        if (now - holdDecreaseUntilNanos < 0) {
+            return;
+        }
+        double previous = rate;
+        rate = clamp(rate * settings.getDecreaseFactor());
+        tokens = Math.min(tokens, 0);
+        holdDecreaseUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(settings.getDecreaseHoldMs());
+        log.warn("WAF block on {}, upstream rate {} -> {} req/s", operation, String.format("%.2f", previous),
+                String.format("%.2f", rate));
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(Math.max(1, settings.getBurst()), tokens + (now - lastRefillNanos) / 1e9 * rate);
+        lastRefillNanos = now;
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinRate(), Math.min(settings.getMaxRate(), value));
+    }
+
+    /** Güncel izin verilen istek hızı (istek/sn). */
+    public synchronized double currentRate() {
+        return rate;
+    }
+}
@@ -0,0 +1,188 @@
+package com.tefasfundapi.tefasFundAPI.client;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.Cookie;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+
+/**
+ * WAF kontrolünü geçmiş, çerezleri hazır bir BrowserContext.
+ * Son kullanma zamanı TEFAS çerezlerinin en erken bitişi ile
+ * session.maxAgeMs'in küçüğüdür.
+ */
+final class WarmContext {
+    private static final Logger log = LoggerFactory.getLogger(WarmContext.class);
+
+    private final PageType type;
+    private final BrowserContext context;
+    private final long warmedAt;
+    private final long expiresAt;
+
+    private WarmContext(PageType type, BrowserContext context, long warmedAt, long expiresAt) {
+        this.type = type;
+        this.context = context;
+        this.warmedAt = warmedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Kayıtlı storageState varsa önce onunla açmayı dener (WAF beklemesi yok);
+     * çerezler artık geçerli değilse tam ısıtmaya düşer. Tüm beklemeler
+     * deadline ile sınırlıdır; istek yolunda isteğin kendi bütçesi verilir.
+     * Her sayfa yüklemesi hız sınırından hemen öncesinde bir token alır.
+     *
+     * @param storageState Playwright storageState JSON'u, yoksa null
+     * @param metrics      İstek filtresi sayacı; null olabilir
+     * @throws TefasTimeoutException bütçe biterse
+     */
+    static WarmContext open(Browser browser, PageType type, PlaywrightConfig config, String storageState,
+            RouteMetrics metrics, UpstreamRateLimiter rateLimiter, Deadline deadline) {
+        if (storageState != null) {
+            try {
+                return restore(browser, type, config, storageState, metrics, rateLimiter, deadline);
+            } catch (TefasTimeoutException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                log.info("Stored session rejected for {} context, doing full warm-up: {}", type, e.getMessage());
+            }
+        }
+        return open(browser, type, config, metrics, rateLimiter, deadline);
+    }
+
+    private static WarmContext restore(Browser browser, PageType type, PlaywrightConfig config,
+            String storageState, RouteMetrics metrics, UpstreamRateLimiter rateLimiter, Deadline deadline) {
+        long startTime = System.currentTimeMillis();
+        BrowserContext context = newContext(browser,
+                PlaywrightHelper.createContextOptions(config).setStorageState(storageState), config, metrics);
+        try {
+            Page page = context.newPage();
+            try {
+                rateLimiter.run("restore " + type, deadline,
+                        () -> PlaywrightHelper.navigateWarm(page, type.url(config), config, deadline));
+                // Eskimiş oturumun reddi hız düşüşü sayılmaz; tam ısıtmaya düşülür
+                ensureFormPresent(page, config);
+            } finally {
+                page.close();
+            }
+
+            long warmedAt = System.currentTimeMillis();
+            long expiresAt = cookieExpiry(context, config, warmedAt + config.getSession().getMaxAgeMs());
+            log.info("Restored {} context from stored session in {} ms", type, warmedAt - startTime);
+            return new WarmContext(type, context, warmedAt, expiresAt);
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Yeni bir context açar, sayfaya gidip WAF beklemesini bir kez yapar ve form
+     * alanlarının geldiğini doğrular.
+     */
+    static WarmContext open(Browser browser, PageType type, PlaywrightConfig config, RouteMetrics metrics,
+            UpstreamRateLimiter rateLimiter, Deadline deadline) {
+        long startTime = System.currentTimeMillis();
+        BrowserContext context = newContext(browser, PlaywrightHelper.createContextOptions(config), config, metrics);
+        try {
+            Page page = context.newPage();
+            try {
+                rateLimiter.run("warm " + type, deadline, () -> {
+                    PlaywrightHelper.navigateAndWaitForWaf(page, type.url(config), config, deadline);
+                    ensureFormPresent(page, config);
+                });
+            } finally {
+                page.close();
+            }
+
+            long warmedAt = System.currentTimeMillis();
+            long expiresAt = cookieExpiry(context, config, warmedAt + config.getSession().getMaxAgeMs());
+            log.info("Warmed {} context in {} ms, valid for {} s", type, warmedAt - startTime,
+                    (expiresAt - warmedAt) / 1000);
+            return new WarmContext(type, context, warmedAt, expiresAt);
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    private static BrowserContext newContext(Browser browser, Browser.NewContextOptions options,
+            PlaywrightConfig config, RouteMetrics metrics) {
+        BrowserContext context = browser.newContext(options);
+        try {
+            PlaywrightHelper.installRoutePolicy(context, config, metrics);
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+        return context;
+    }
+
+    private static void ensureFormPresent(Page page, PlaywrightConfig config) {
+        if (page.locator(config.getSelectors().getStartDate()).count() == 0) {
+            String content = page.content();
+            throw new TefasWafBlockedException(content.length() > 500 ? content.substring(0, 500) : content);
+        }
+    }
+
+    private static long cookieExpiry(BrowserContext context, PlaywrightConfig config, long maxExpiry) {
+        String host = URI.create(config.getBaseUrl()).getHost();
+        long expiry = maxExpiry;
+        for (Cookie cookie : context.cookies()) {
+            boolean tefasCookie = cookie.domain != null && host != null
+                    && host.endsWith(cookie.domain.startsWith(".") ? cookie.domain.substring(1) : cookie.domain);
+            if (tefasCookie && cookie.expires != null && cookie.expires > 0) {
+                expiry = Math.min(expiry, (long) (cookie.expires * 1000));
+            }
+        }
+        return expiry;
+    }
+
+    PageType type() {
+        return type;
+    }
+
+    BrowserContext context() {
+        return context;
+    }
+
+    long warmedAt() {
+        return warmedAt;
+    }
+
+    long expiresAt() {
+        return expiresAt;
+    }
+
+    boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    boolean needsRefresh(long now, long refreshAheadMs) {
+        return now + refreshAheadMs >= expiresAt;
+    }
+
+    /** Context hâlâ cevap veriyor ve çerezleri duruyor mu? */
+    boolean isHealthy() {
+        try {
+            return !context.cookies().isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    void close() {
+        try {
+            context.close();
+        } catch (Exception e) {
+            log.debug("Error while closing {} context: {}", type, e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.tefasfundapi.tefasFundAPI.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Playwright ve TEFAS client konfigürasyonu.
  * Tüm hard-coded değerler burada merkezi olarak yönetilir.
@@ -12,13 +15,17 @@ import org.springframework.stereotype.Component;
 public class PlaywrightConfig {
 
     // Timeout değerleri (milisaniye)
+    // Tek bir isteğin toplam bütçesi; aşağıdaki tüm adımlar bununla sınırlanır
+    private int requestBudgetMs = 45000;
     private int elementWaitTimeoutMs = 10000;
     private int navigationTimeoutMs = 30000;
     private int buttonClickTimeoutMs = 5000;
     private int wafWaitMs = 10000;
     private int pageLoadWaitMs = 2000;
+    private int apiResponseTimeoutMs = 30000;
+    private int responseQuietPeriodMs = 500;
 
-    // Thread.sleep() değerleri (milisaniye)
+    // Ara bekleme değerleri (milisaniye, istek bütçesinden düşülür)
     private int tableLoadWaitMs = 1500;
     private int tableDataExtractionWaitMs = 1000;
     private int filterApplyWaitMs = 1000;
@@ -45,6 +52,39 @@ public class PlaywrightConfig {
     // Selectors
     private Selectors selectors = new Selectors();
 
+    // Browser havuzu
+    private Pool pool = new Pool();
+
+    // Isınmış (WAF'ı geçmiş) context ayarları
+    private Session session = new Session();
+
+    // Browser'sız doğrudan HTTP modu
+    private Direct direct = new Direct();
+
+    // Ağ isteği filtresi (görsel/font/CSS/analitik engellenir)
+    private Routes routes = new Routes();
+
+    // Uzun NAV aralıklarının parçalara bölünmesi
+    private History history = new History();
+
+    // Tüm fonların bellekteki anlık görüntüsü
+    private Universe universe = new Universe();
+
+    // Tarih penceresi bazlı performans önbelleği
+    private Performance performance = new Performance();
+
+    // Controller'ların asenkron upstream executor'ı
+    private Async async = new Async();
+
+    // Upstream çağrılarının kabul kuyruğu (yük atma)
+    private Admission admission = new Admission();
+
+    // TEFAS'a giden çağrıların AIMD hız sınırı
+    private RateLimit rateLimit = new RateLimit();
+
+    // Upstream endpoint'leri için devre kesici
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
     // Getters and Setters
     public int getElementWaitTimeoutMs() {
         return elementWaitTimeoutMs;
@@ -126,6 +166,30 @@ public class PlaywrightConfig {
         this.inputFillWaitMs = inputFillWaitMs;
     }
 
+    public int getRequestBudgetMs() {
+        return requestBudgetMs;
+    }
+
+    public void setRequestBudgetMs(int requestBudgetMs) {
+        this.requestBudgetMs = requestBudgetMs;
+    }
+
+    public int getApiResponseTimeoutMs() {
+        return apiResponseTimeoutMs;
+    }
+
+    public void setApiResponseTimeoutMs(int apiResponseTimeoutMs) {
+        this.apiResponseTimeoutMs = apiResponseTimeoutMs;
+    }
+
+    public int getResponseQuietPeriodMs() {
+        return responseQuietPeriodMs;
+    }
+
+    public void setResponseQuietPeriodMs(int responseQuietPeriodMs) {
+        this.responseQuietPeriodMs = responseQuietPeriodMs;
+    }
+
     public int getButtonClickWaitMs() {
         return buttonClickWaitMs;
     }
@@ -238,6 +302,94 @@ public class PlaywrightConfig {
         this.selectors = selectors;
     }
 
+    public Pool getPool() {
+        return pool;
+    }
+
+    public void setPool(Pool pool) {
+        this.pool = pool;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    public Direct getDirect() {
+        return direct;
+    }
+
+    public void setDirect(Direct direct) {
+        this.direct = direct;
+    }
+
+    public Routes getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Routes routes) {
+        this.routes = routes;
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    public void setHistory(History history) {
+        this.history = history;
+    }
+
+    public Universe getUniverse() {
+        return universe;
+    }
+
+    public void setUniverse(Universe universe) {
+        this.universe = universe;
+    }
+
+    public Performance getPerformance() {
+        return performance;
+    }
+
+    public void setPerformance(Performance performance) {
+        this.performance = performance;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
     // Helper methods
     public String getHistoryReferer() {
         return baseUrl + historyPageUrl;
@@ -296,4 +448,559 @@ public class PlaywrightConfig {
             this.searchButton = searchButton;
         }
     }
+
+    /**
+     * Önceden başlatılmış Browser havuzu ayarları.
+     * Her istek havuzdan bir Browser kiralar ve iş bitince geri bırakır.
+     */
+    public static class Pool {
+        private int minSize = 1;
+        private int maxSize = 2;
+        private int acquireTimeoutMs = 30000;
+        private int maxUsesPerBrowser = 200;
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getAcquireTimeoutMs() {
+            return acquireTimeoutMs;
+        }
+
+        public void setAcquireTimeoutMs(int acquireTimeoutMs) {
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        public int getMaxUsesPerBrowser() {
+            return maxUsesPerBrowser;
+        }
+
+        public void setMaxUsesPerBrowser(int maxUsesPerBrowser) {
+            this.maxUsesPerBrowser = maxUsesPerBrowser;
+        }
+    }
+
+    /**
+     * Havuzdaki her Browser'da sayfa tipi başına tutulan, WAF kontrolünü geçmiş
+     * BrowserContext ayarları.
+     */
+    public static class Session {
+        private boolean prewarm = true;
+        private long maxAgeMs = 600000;
+        private long refreshAheadMs = 120000;
+        private long refreshCheckIntervalMs = 60000;
+        private String storageStatePath = "data/storageState.json";
+
+        public boolean isPrewarm() {
+            return prewarm;
+        }
+
+        public void setPrewarm(boolean prewarm) {
+            this.prewarm = prewarm;
+        }
+
+        public long getMaxAgeMs() {
+            return maxAgeMs;
+        }
+
+        public void setMaxAgeMs(long maxAgeMs) {
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        public long getRefreshAheadMs() {
+            return refreshAheadMs;
+        }
+
+        public void setRefreshAheadMs(long refreshAheadMs) {
+            this.refreshAheadMs = refreshAheadMs;
+        }
+
+        public long getRefreshCheckIntervalMs() {
+            return refreshCheckIntervalMs;
+        }
+
+        public void setRefreshCheckIntervalMs(long refreshCheckIntervalMs) {
+            this.refreshCheckIntervalMs = refreshCheckIntervalMs;
+        }
+
+        public String getStorageStatePath() {
+            return storageStatePath;
+        }
+
+        public void setStorageStatePath(String storageStatePath) {
+            this.storageStatePath = storageStatePath;
+        }
+    }
+
+    /**
+     * Doğrudan HTTP modu: gerçek bir browser'dan toplanan çerezlerle TEFAS API
+     * uçlarına browser açmadan form-encoded POST atılır. WAF sayfası ya da
+     * 401/403 gelirse oturum yeniden toplanır ve browser yoluna düşülür.
+     */
+    public static class Direct {
+        private boolean enabled = false;
+        private long harvestIntervalMs = 300000;
+        private long maxSessionAgeMs = 900000;
+        private int connectTimeoutMs = 5000;
+        private int requestTimeoutMs = 15000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getHarvestIntervalMs() {
+            return harvestIntervalMs;
+        }
+
+        public void setHarvestIntervalMs(long harvestIntervalMs) {
+            this.harvestIntervalMs = harvestIntervalMs;
+        }
+
+        public long getMaxSessionAgeMs() {
+            return maxSessionAgeMs;
+        }
+
+        public void setMaxSessionAgeMs(long maxSessionAgeMs) {
+            this.maxSessionAgeMs = maxSessionAgeMs;
+        }
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public int getRequestTimeoutMs() {
+            return requestTimeoutMs;
+        }
+
+        public void setRequestTimeoutMs(int requestTimeoutMs) {
+            this.requestTimeoutMs = requestTimeoutMs;
+        }
+    }
+
+    /**
+     * Havuzdaki context'lere uygulanan istek filtresi.
+     * Yalnızca izinli host'lara giden, engelli tipte olmayan istekler geçer;
+     * diğerleri (görsel, font, CSS, üçüncü parti izleyiciler) iptal edilir.
+     */
+    public static class Routes {
+        private boolean enabled = true;
+        private List<String> allowedHosts = new ArrayList<>(List.of(
+                "tefas.gov.tr", "code.jquery.com", "cdn.datatables.net", "cdnjs.cloudflare.com"));
+        private List<String> blockedResourceTypes = new ArrayList<>(List.of(
+                "image", "font", "stylesheet", "media"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getAllowedHosts() {
+            return allowedHosts;
+        }
+
+        public void setAllowedHosts(List<String> allowedHosts) {
+            this.allowedHosts = allowedHosts;
+        }
+
+        public List<String> getBlockedResourceTypes() {
+            return blockedResourceTypes;
+        }
+
+        public void setBlockedResourceTypes(List<String> blockedResourceTypes) {
+            this.blockedResourceTypes = blockedResourceTypes;
+        }
+    }
+
+    /**
+     * BindHistoryInfo tek sorguda sınırlı bir tarih aralığı kabul eder.
+     * Daha uzun aralıklar chunkDays günlük parçalara bölünür ve en fazla
+     * maxParallelChunks parça aynı anda çekilir (pool.maxSize ile sınırlı).
+     * Bekleyen parça kuyruğu chunkQueueCapacity ile sınırlıdır; doluysa istek
+     * 503 ile reddedilir. Parça başına expectedChunkMs sürdüğü varsayılır;
+     * istek bütçesine sığmayacak kadar uzun aralıklar çekilmeden 400 ile
+     * reddedilir.
+     * Geçmiş günlerin NAV'ı değişmediği için önbellekte süresiz tutulur;
+     * yalnızca bugünün satırı todayTtlMs sonra yeniden çekilir. Satırlar
+     * storePath altında fon başına kolon bazlı dosyalarda kalıcıdır; bellekte
+     * en fazla maxOpenFunds fonun dosyası map edilmiş tutulur (LRU). Toplu
+     * NAV sorgusu en fazla maxBatchCodes fon kodu kabul eder.
+     */
+    public static class History {
+        private int chunkDays = 90;
+        private int maxParallelChunks = 2;
+        private int chunkQueueCapacity = 16;
+        private long expectedChunkMs = 8000;
+        private boolean cacheEnabled = true;
+        private long todayTtlMs = 300000;
+        private String storePath = "data/nav";
+        private int maxOpenFunds = 2000;
+        private int maxBatchCodes = 100;
+
+        public int getChunkDays() {
+            return chunkDays;
+        }
+
+        public void setChunkDays(int chunkDays) {
+            this.chunkDays = chunkDays;
+        }
+
+        public int getMaxParallelChunks() {
+            return maxParallelChunks;
+        }
+
+        public void setMaxParallelChunks(int maxParallelChunks) {
+            this.maxParallelChunks = maxParallelChunks;
+        }
+
+        public int getChunkQueueCapacity() {
+            return chunkQueueCapacity;
+        }
+
+        public void setChunkQueueCapacity(int chunkQueueCapacity) {
+            this.chunkQueueCapacity = chunkQueueCapacity;
+        }
+
+        public long getExpectedChunkMs() {
+            return expectedChunkMs;
+        }
+
+        public void setExpectedChunkMs(long expectedChunkMs) {
+            this.expectedChunkMs = expectedChunkMs;
+        }
+
+        public boolean isCacheEnabled() {
+            return cacheEnabled;
+        }
+
+        public void setCacheEnabled(boolean cacheEnabled) {
+            this.cacheEnabled = cacheEnabled;
+        }
+
+        public long getTodayTtlMs() {
+            return todayTtlMs;
+        }
+
+        public void setTodayTtlMs(long todayTtlMs) {
+            this.todayTtlMs = todayTtlMs;
+        }
+
+        public String getStorePath() {
+            return storePath;
+        }
+
+        public void setStorePath(String storePath) {
+            this.storePath = storePath;
+        }
+
+        public int getMaxOpenFunds() {
+            return maxOpenFunds;
+        }
+
+        public void setMaxOpenFunds(int maxOpenFunds) {
+            this.maxOpenFunds = maxOpenFunds;
+        }
+
+        public int getMaxBatchCodes() {
+            return maxBatchCodes;
+        }
+
+        public void setMaxBatchCodes(int maxBatchCodes) {
+            this.maxBatchCodes = maxBatchCodes;
+        }
+    }
+
+    /**
+     * getFund için tüm fon evreni tek comparison çağrısıyla çekilir ve
+     * bellekte değişmez bir harita olarak tutulur; refreshIntervalMs'te bir
+     * arka planda yenilenir. Kapalıysa her getFund upstream'e gider.
+     */
+    public static class Universe {
+        private boolean enabled = true;
+        private long refreshIntervalMs = 900000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getRefreshIntervalMs() {
+            return refreshIntervalMs;
+        }
+
+        public void setRefreshIntervalMs(long refreshIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+        }
+    }
+
+    /**
+     * getFundPerformance için her (start, end) penceresinin tüm fon getirileri
+     * önbellekte tutulur. En fazla maxWindows pencere saklanır (LRU); bitişi
+     * bugün olan pencereler openWindowTtlMs sonra yenilenir.
+     */
+    public static class Performance {
+        private int maxWindows = 32;
+        private long openWindowTtlMs = 300000;
+
+        public int getMaxWindows() {
+            return maxWindows;
+        }
+
+        public void setMaxWindows(int maxWindows) {
+            this.maxWindows = maxWindows;
+        }
+
+        public long getOpenWindowTtlMs() {
+            return openWindowTtlMs;
+        }
+
+        public void setOpenWindowTtlMs(long openWindowTtlMs) {
+            this.openWindowTtlMs = openWindowTtlMs;
+        }
+    }
+
+    /**
+     * Browser'a bağlı servis çağrıları Tomcat thread'lerinde değil, bu sınırlı
+     * executor'da çalışır. Thread sayısı pool.maxSize * threadsPerBrowser'dır;
+     * kuyruk dolarsa istek hemen reddedilir.
+     * virtualThreads açıkken (Java 21, "virtual" profili) istekler virtual
+     * thread'lerde çalışır; eşzamanlı istek sınırı threads + queueCapacity'dir.
+     * Playwright işi her durumda pool.maxSize platform thread'ine sabitlenir.
+     */
+    public static class Async {
+        private int threadsPerBrowser = 2;
+        private int queueCapacity = 100;
+        private boolean virtualThreads = false;
+
+        public int getThreadsPerBrowser() {
+            return threadsPerBrowser;
+        }
+
+        public void setThreadsPerBrowser(int threadsPerBrowser) {
+            this.threadsPerBrowser = threadsPerBrowser;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    /**
+     * Servis katmanındaki kabul kuyruğu. Aynı anda en fazla pool.maxSize upstream
+     * çağrısı çalışır; diğerleri en fazla maxQueue kadar, en fazla maxQueueWaitMs
+     * bekler. Kuyruk doluysa ya da bekleme aşılırsa 503 + Retry-After döner.
+     * Kuyruk öncelik sınıfı (INTERACTIVE/BULK) başına ayrıdır; boşalan yer
+     * sınıflara ağırlıkları oranında verilir, reservedForInteractive kadar yer
+     * BULK işlere hiç verilmez.
+     */
+    public static class Admission {
+        private int maxQueue = 50;
+        private long maxQueueWaitMs = 10000;
+        private int retryAfterSeconds = 5;
+        private int interactiveWeight = 4;
+        private int bulkWeight = 1;
+        private int reservedForInteractive = 1;
+
+        public int getMaxQueue() {
+            return maxQueue;
+        }
+
+        public void setMaxQueue(int maxQueue) {
+            this.maxQueue = maxQueue;
+        }
+
+        public long getMaxQueueWaitMs() {
+            return maxQueueWaitMs;
+        }
+
+        public void setMaxQueueWaitMs(long maxQueueWaitMs) {
+            this.maxQueueWaitMs = maxQueueWaitMs;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(int retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getInteractiveWeight() {
+            return interactiveWeight;
+        }
+
+        public void setInteractiveWeight(int interactiveWeight) {
+            this.interactiveWeight = interactiveWeight;
+        }
+
+        public int getBulkWeight() {
+            return bulkWeight;
+        }
+
+        public void setBulkWeight(int bulkWeight) {
+            this.bulkWeight = bulkWeight;
+        }
+
+        public int getReservedForInteractive() {
+            return reservedForInteractive;
+        }
+
+        public void setReservedForInteractive(int reservedForInteractive) {
+            this.reservedForInteractive = reservedForInteractive;
+        }
+    }
+
+    /**
+     * TEFAS'a giden çağrıların token bucket hız sınırı (istek/sn).
+     * Hız initialRate'ten başlar; başarıda increasePerSuccess kadar artar, WAF
+     * engelinde decreaseFactor ile çarpılır (decreaseHoldMs içinde bir kez).
+     * Hız [minRate, maxRate] aralığında, biriken token burst ile sınırlıdır.
+     */
+    public static class RateLimit {
+        private boolean enabled = true;
+        private double initialRate = 2.0;
+        private double minRate = 0.1;
+        private double maxRate = 10.0;
+        private int burst = 3;
+        private double increasePerSuccess = 0.05;
+        private double decreaseFactor = 0.5;
+        private long decreaseHoldMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getInitialRate() {
+            return initialRate;
+        }
+
+        public void setInitialRate(double initialRate) {
+            this.initialRate = initialRate;
+        }
+
+        public double getMinRate() {
+            return minRate;
+        }
+
+        public void setMinRate(double minRate) {
+            this.minRate = minRate;
+        }
+
+        public double getMaxRate() {
+            return maxRate;
+        }
+
+        public void setMaxRate(double maxRate) {
+            this.maxRate = maxRate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public double getIncreasePerSuccess() {
+            return increasePerSuccess;
+        }
+
+        public void setIncreasePerSuccess(double increasePerSuccess) {
+            this.increasePerSuccess = increasePerSuccess;
+        }
+
+        public double getDecreaseFactor() {
+            return decreaseFactor;
+        }
+
+        public void setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+        }
+
+        public long getDecreaseHoldMs() {
+            return decreaseHoldMs;
+        }
+
+        public void setDecreaseHoldMs(long decreaseHoldMs) {
+            this.decreaseHoldMs = decreaseHoldMs;
+        }
+    }
+
+    /**
+     * Endpoint (history, comparison, performance) başına devre kesici.
+     * Üst üste failureThreshold WAF engeli/zaman aşımında devre openMs boyunca
+     * açılır; bu sürede çağrılar upstream'e gitmeden reddedilir. Süre dolunca
+     * tek bir deneme çağrısı geçer, başarılıysa devre kapanır.
+     */
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private int failureThreshold = 5;
+        private long openMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getOpenMs() {
+            return openMs;
+        }
+
+        public void setOpenMs(long openMs) {
+            this.openMs = openMs;
+        }
+    }
 }
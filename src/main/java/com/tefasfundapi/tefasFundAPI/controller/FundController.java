@@ -6,6 +6,7 @@ import com.tefasfundapi.tefasFundAPI.dto.PagedResponse;
 import com.tefasfundapi.tefasFundAPI.exception.FundNotFoundException;
 import com.tefasfundapi.tefasFundAPI.exception.InvalidDateRangeException;
 import com.tefasfundapi.tefasFundAPI.filter.FieldFilter;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
 import com.tefasfundapi.tefasFundAPI.service.TefasService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -28,8 +29,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.time.LocalDate;
 
+/**
+ * Upstream'e gidebilen endpoint'ler CompletableFuture döner; istek servlet
+ * thread'ini bırakıp servis katmanının upstream executor'ında tamamlanır.
+ * İstemci X-Priority: BULK başlığıyla toplu işlerini düşük öncelikle çalıştırır.
+ */
 @RestController
 @RequestMapping("/v1/funds")
 @Validated
@@ -51,13 +58,14 @@ public class FundController {
             @ApiResponse(responseCode = "400", description = "Geçersiz parametre", content = @Content(mediaType = "application/json"))
     })
     @GetMapping("/{code}")
-    public ResponseEntity<?> getFund(
+    public CompletableFuture<ResponseEntity<?>> getFund(
             @Parameter(description = "Fon kodu (örn: AAK, AOY)", required = true, example = "AAK") @PathVariable @NotBlank(message = "Fund code cannot be blank") String code,
-            @Parameter(description = "Döndürülecek alanlar (virgülle ayrılmış). Örn: fundCode,fundName,getiri1A", example = "fundCode,fundName,getiri1A") @RequestParam(required = false, name = "fields") String fieldsCsv) {
+            @Parameter(description = "Döndürülecek alanlar (virgülle ayrılmış). Örn: fundCode,fundName,getiri1A", example = "fundCode,fundName,getiri1A") @RequestParam(required = false, name = "fields") String fieldsCsv,
+            @Parameter(description = "Öncelik sınıfı: INTERACTIVE (varsayılan) ya da toplu işler için BULK", example = "INTERACTIVE") @RequestHeader(value = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
         List<String> fields = FieldFilter.parse(fieldsCsv);
-        FundDto fund = tefasService.getFund(code.trim(), fields)
-                .orElseThrow(() -> new FundNotFoundException(code));
-        return ResponseEntity.ok(FieldFilter.apply(fund, fields));
+        return tefasService.getFundAsync(code.trim(), fields, priority)
+                .thenApply(fund -> ResponseEntity.ok(FieldFilter.apply(
+                        fund.orElseThrow(() -> new FundNotFoundException(code)), fields)));
     }
 
     @Operation(summary = "Fon performansı getir", description = "Belirli bir fonun seçilen tarih aralığındaki performans getirilerini getirir. "
@@ -65,18 +73,19 @@ public class FundController {
             "Tarih aralığına göre fon getirilerini (BindComparisonFundReturns) döndürür. " +
             "Sayfalama desteği vardır (page, size parametreleri).")
     @GetMapping("/{code}/performance")
-    public ResponseEntity<PagedResponse<FundPerformanceDto>> getPerformance(
+    public CompletableFuture<ResponseEntity<PagedResponse<FundPerformanceDto>>> getPerformance(
             @Parameter(description = "Fon kodu", required = true, example = "AAK") @PathVariable @NotBlank(message = "Fund code cannot be blank") String code,
             @Parameter(description = "Başlangıç tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-01-01") @RequestParam @NotNull(message = "Start date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @Parameter(description = "Bitiş tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-03-01") @RequestParam @NotNull(message = "End date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
-            @ParameterObject @PageableDefault(size = 20) Pageable pageable) {
+            @ParameterObject @PageableDefault(size = 20) Pageable pageable,
+            @Parameter(description = "Öncelik sınıfı: INTERACTIVE (varsayılan) ya da toplu işler için BULK", example = "INTERACTIVE") @RequestHeader(value = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
 
         if (start.isAfter(end)) {
             throw new InvalidDateRangeException("start date must be <= end date");
         }
 
-        return tefasService.getFundPerformance(code.trim(), start, end, pageable)
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> new FundNotFoundException(code));
+        return tefasService.getFundPerformanceAsync(code.trim(), start, end, pageable, priority)
+                .thenApply(result -> result.map(ResponseEntity::ok)
+                        .orElseThrow(() -> new FundNotFoundException(code)));
     }
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package com.tefasfundapi.tefasFundAPI.controller;
 
 import com.tefasfundapi.tefasFundAPI.exception.FundNotFoundException;
 import com.tefasfundapi.tefasFundAPI.exception.InvalidDateRangeException;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
 import com.tefasfundapi.tefasFundAPI.service.TefasService;
 import com.tefasfundapi.tefasFundAPI.dto.PagedResponse;
 import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.filter.FieldFilter;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,7 +24,16 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * NAV endpoint'leri CompletableFuture döner; istek servlet thread'ini bırakıp
+ * servis katmanının upstream executor'ında tamamlanır.
+ */
 @RestController
 @RequestMapping("/v1/funds")
 @Validated
@@ -40,18 +51,37 @@ public class HistoryController {
             "Her gün için fiyat, çıkışta dolaşan pay sayısı, toplam değer ve yatırımcı sayısı bilgilerini içerir. " +
             "Sayfalama desteği vardır (page, size parametreleri).")
     @GetMapping("/{code}/nav")
-    public ResponseEntity<PagedResponse<PriceRowDto>> getNav(
+    public CompletableFuture<ResponseEntity<PagedResponse<PriceRowDto>>> getNav(
             @Parameter(description = "Fon kodu", required = true, example = "AAK") @PathVariable @NotBlank(message = "Fund code cannot be blank") String code,
             @Parameter(description = "Başlangıç tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-01-01") @RequestParam @NotNull(message = "Start date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
             @Parameter(description = "Bitiş tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-01-31") @RequestParam @NotNull(message = "End date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
-            @ParameterObject @PageableDefault(size = 20) Pageable pageable) {
+            @ParameterObject @PageableDefault(size = 20) Pageable pageable,
+            @Parameter(description = "Öncelik sınıfı: INTERACTIVE (varsayılan) ya da toplu işler için BULK", example = "INTERACTIVE") @RequestHeader(value = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
 
         if (start.isAfter(end)) {
             throw new InvalidDateRangeException("start date must be <= end date");
         }
 
-        return tefasService.getFundNav(code.trim(), start, end, pageable)
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> new FundNotFoundException(code));
+        return tefasService.getFundNavAsync(code.trim(), start, end, pageable, priority)
+                .thenApply(result -> result.map(ResponseEntity::ok)
+                        .orElseThrow(() -> new FundNotFoundException(code)));
+    }
+
+    @Operation(summary = "Birden fazla fonun NAV geçmişini getir", description = "Virgülle ayrılmış fon kodları için NAV geçmişini tek upstream çağrısıyla getirir. "
+            +
+            "Yanıt fon kodu -> günlük NAV satırları eşlemesidir; verisi olmayan fonlar boş liste ile döner.")
+    @GetMapping("/nav")
+    public CompletableFuture<ResponseEntity<Map<String, List<PriceRowDto>>>> getNavBatch(
+            @Parameter(description = "Fon kodları (virgülle ayrılmış, en fazla history.max-batch-codes)", required = true, example = "AAK,TTE,IPB") @RequestParam @NotBlank(message = "Fund codes cannot be blank") String codes,
+            @Parameter(description = "Başlangıç tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-01-01") @RequestParam @NotNull(message = "Start date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @Parameter(description = "Bitiş tarihi (YYYY-MM-DD formatında)", required = true, example = "2024-01-31") @RequestParam @NotNull(message = "End date is required") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @Parameter(description = "Öncelik sınıfı: INTERACTIVE (varsayılan) ya da toplu işler için BULK", example = "INTERACTIVE") @RequestHeader(value = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
+
+        if (start.isAfter(end)) {
+            throw new InvalidDateRangeException("start date must be <= end date");
+        }
+
+        Set<String> fundCodes = new LinkedHashSet<>(FieldFilter.parse(codes));
+        return tefasService.getFundNavBatchAsync(fundCodes, start, end, priority).thenApply(ResponseEntity::ok);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.tefasfundapi.tefasFundAPI.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
@@ -38,6 +40,9 @@ public class PagedResponse<T> {
         private int size;
         private int totalElements;
         private int totalPages;
+        // Upstream'e ulaşılamadığında önbellekteki son veri dönerse true; taze cevapta alan yazılmaz
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Boolean stale;
 
         public Meta(int page, int size, int totalElements, int totalPages) {
             this.page = page;
@@ -77,5 +82,13 @@ public class PagedResponse<T> {
         public void setTotalPages(int totalPages) {
             this.totalPages = totalPages;
         }
+
+        public Boolean getStale() {
+            return stale;
+        }
+
+        public void setStale(Boolean stale) {
+            this.stale = stale;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.tefasfundapi.tefasFundAPI.exception;
+
+/**
+ * Exception thrown without calling TEFAS while the circuit breaker of an
+ * upstream endpoint is open. Retry-After is the time until the next probe.
+ */
+public class TefasCircuitOpenException extends TefasOverloadedException {
+    public TefasCircuitOpenException(String message, int retryAfterSeconds) {
+        super("UPSTREAM_UNAVAILABLE", message, retryAfterSeconds);
+    }
+}
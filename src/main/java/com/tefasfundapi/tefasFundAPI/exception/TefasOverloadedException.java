@@ -0,0 +1,28 @@
+package com.tefasfundapi.tefasFundAPI.exception;
+
+/**
+ * Exception thrown when the service sheds load instead of queueing a request.
+ * Carries the number of seconds the caller should wait before retrying.
+ */
+public class TefasOverloadedException extends TefasException {
+    private final int retryAfterSeconds;
+
+    public TefasOverloadedException(String message, int retryAfterSeconds) {
+        super("SERVICE_OVERLOADED", message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public TefasOverloadedException(String message, int retryAfterSeconds, Throwable cause) {
+        super("SERVICE_OVERLOADED", message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    protected TefasOverloadedException(String errorCode, String message, int retryAfterSeconds) {
+        super(errorCode, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
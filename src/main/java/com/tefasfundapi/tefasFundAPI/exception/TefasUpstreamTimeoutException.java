@@ -0,0 +1,16 @@
+package com.tefasfundapi.tefasFundAPI.exception;
+
+/**
+ * Exception thrown when TEFAS itself does not answer in time (page navigation,
+ * API response, direct HTTP call). Local waits such as the browser pool or the
+ * admission queue throw a plain {@link TefasTimeoutException} instead.
+ */
+public class TefasUpstreamTimeoutException extends TefasTimeoutException {
+    public TefasUpstreamTimeoutException(String operation, long timeoutMs) {
+        super(operation, timeoutMs);
+    }
+
+    public TefasUpstreamTimeoutException(String operation, long timeoutMs, Throwable cause) {
+        super(operation, timeoutMs, cause);
+    }
+}
@@ -0,0 +1,140 @@
+package com.tefasfundapi.tefasFundAPI.parser;
+
+/**
+ * Türkçe biçimli sayılar ("1.234,56") için tek geçişli, ara String üretmeyen
+ * ayrıştırıcı. CharSequence aralıkları [from, to) üzerinde çalışır.
+ * {@link FundsParser}, getiri sayı yerine metin olarak geldiğinde ("1,6770")
+ * bunu parseNumber ile çözer.
+ *
+ * Sonuçlar eski String tabanlı yolla birebir aynıdır:
+ * - Baştaki/sondaki boşluklar (<= ' ') String.trim gibi atlanır.
+ * - '.' binlik ayırıcı olarak yok sayılır, ',' ondalık ayırıcıdır.
+ * Hızlı yolun kapsamadığı girdiler (üs, 15+ haneli mantis, ASCII dışı karakter vb.)
+ * eski yola düşer; bu yüzden sonuç hiçbir girdide değişmez.
+ */
+public final class CellParser {
+
+    /** 10^0 .. 10^22: double'da tam temsil edilen 10 kuvvetleri. */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** Mantis bu sınırın altındaysa double'a tam çevrilir (2^53). */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private CellParser() {
+        // Utility class - cannot be instantiated
+    }
+
+    /**
+     * Türkçe ondalık sayı ("1.234,56" -> 1234.56).
+     *
+     * @return değer; boş ya da geçersizse null
+     */
+    public static Double parseNumber(CharSequence s) {
+        if (s == null) {
+            return null;
+        }
+        int from = trimStart(s, 0, s.length());
+        int to = trimEnd(s, from, s.length());
+        if (from == to) {
+            return null;
+        }
+        double value = parseDecimal(s, from, to);
+        if (Double.isNaN(value)) {
+            // Geçersiz ile "NaN" hücresini ayırt etmek için (nadir) eski yol
+            return slowNumber(s.subSequence(from, to).toString());
+        }
+        return value;
+    }
+
+    /**
+     * Türkçe ondalık sayı, kutulamadan.
+     *
+     * @return değer; boş ya da geçersizse NaN
+     */
+    public static double parseDecimal(CharSequence s, int from, int to) {
+        from = trimStart(s, from, to);
+        to = trimEnd(s, from, to);
+        if (from == to) {
+            return Double.NaN;
+        }
+
+        // İşaret, baştaki binlik ayırıcılardan sonra da gelebilir (".-5" -> "-5")
+        int i = from;
+        while (i < to && s.charAt(i) == '.') {
+            i++;
+        }
+        boolean negative = false;
+        if (i < to && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean comma = false;
+        for (; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return fallbackDecimal(s, from, to);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (comma) {
+                    scale++;
+                }
+            } else if (c == '.') {
+                // Binlik ayırıcı: yok sayılır
+            } else if (c == ',' && !comma) {
+                comma = true;
+            } else if (c == ',' || c == '-' || c == '+') {
+                return Double.NaN;
+            } else {
+                return fallbackDecimal(s, from, to);
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (scale >= POW10.length) {
+            return fallbackDecimal(s, from, to);
+        }
+        // Mantis ve 10^scale tam temsil edildiğinden tek bölme doğru yuvarlanır
+        double value = (double) mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private static int trimStart(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(CharSequence s, int from, int to) {
+        while (to > from && s.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /*
+     * Eski String tabanlı yol: yalnızca hızlı yolun kapsamadığı girdilerde.
+     */
+
+    private static double fallbackDecimal(CharSequence s, int from, int to) {
+        Double value = slowNumber(s.subSequence(from, to).toString());
+        return value == null ? Double.NaN : value;
+    }
+
+    private static Double slowNumber(String trimmed) {
+        try {
+            return Double.parseDouble(trimmed.replace(".", "").replace(",", "."));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.tefasfundapi.tefasFundAPI.parser;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tefasfundapi.tefasFundAPI.dto.FundDto;
 import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
 import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
@@ -11,172 +9,169 @@ import io.swagger.v3.core.util.Json;
 
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class FundsParser {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Fon listesi (calismatipi=1) satır şeması
+    private static final JsonRowReader.Schema FUND = new JsonRowReader.Schema();
+    private static final int F_CODE = FUND.text("FONKODU", "FundCode", "fundCode", "Code");
+    private static final int F_NAME = FUND.text("FONUNVAN", "FundName", "fundName", "Name");
+    private static final int F_TYPE = FUND.text("FONTURACIKLAMA", "UmbrellaType", "umbrellaType", "Type");
+    private static final int F_ISSUER = FUND.text("Issuer", "issuer");
+    private static final int F_INCEPTION = FUND.text("InceptionDate", "inceptionDate");
+    private static final int F_EXPENSE = FUND.number("ExpenseRatio", "expenseRatio");
+    private static final int F_1A = FUND.number("GETIRI1A", "getiri1A");
+    private static final int F_3A = FUND.number("GETIRI3A", "getiri3A");
+    private static final int F_6A = FUND.number("GETIRI6A", "getiri6A");
+    private static final int F_1Y = FUND.number("GETIRI1Y", "getiri1Y");
+    private static final int F_YB = FUND.number("GETIRIYB", "getiriYB");
+    private static final int F_3Y = FUND.number("GETIRI3Y", "getiri3Y");
+    private static final int F_5Y = FUND.number("GETIRI5Y", "getiri5Y");
+
+    // Tarih aralığı getirisi (calismatipi=2) satır şeması
+    private static final JsonRowReader.Schema PERFORMANCE = new JsonRowReader.Schema();
+    private static final int P_CODE = PERFORMANCE.text("fonKodu", "FONKODU", "FundCode", "fundCode");
+    private static final int P_NAME = PERFORMANCE.text("fonAdi", "FONADI", "FONUNVAN", "FonAdi", "FundName",
+            "fundName");
+    private static final int P_TYPE = PERFORMANCE.text("semsiyeFonTuru", "SEMSIYEFONTURU", "FONTURACIKLAMA",
+            "SemsiyeFonTuru", "UmbrellaType", "umbrellaType");
+    private static final int P_GETIRI = PERFORMANCE.number("GETIRIORANI", "getiri", "GETIRI", "Getiri");
+    private static final int P_GETIRI_TEXT = PERFORMANCE.text("getiri", "GETIRI", "Getiri", "GETIRIORANI");
 
     /**
      * Beklenen: JSON array ya da "data":[...] benzeri bir yapı.
-     * Sniffer ile gördüğün alan adlarını burada eşle.
+     * Yanıt ağaç kurulmadan akış halinde okunur.
      */
     public List<FundDto> toFunds(String rawJson) {
-        try {
-            if (rawJson == null || rawJson.trim().isEmpty()) {
-                throw new TefasParseException("Empty or null response from TEFAS API");
-            }
+        return toFunds(rawJson, RowFilter.all());
+    }
 
-            // HTML response kontrolü (WAF engeli veya hata sayfası)
-            String trimmed = rawJson.trim();
-            if (trimmed.startsWith("<") || trimmed.startsWith("<!DOCTYPE") || trimmed.startsWith("<html")) {
-                String preview = trimmed.length() > 500 ? trimmed.substring(0, 500) : trimmed;
-                throw new TefasWafBlockedException(preview);
-            }
+    public List<FundDto> toFunds(String rawJson, RowFilter filter) {
+        return toFunds(utf8(rawJson), filter);
+    }
 
-            JsonNode root = MAPPER.readTree(rawJson);
-            JsonNode arr = root.isArray() ? root
-                    : (root.has("data") ? root.get("data") : root);
-            List<FundDto> out = new ArrayList<>();
-
-            if (arr.isArray()) {
-                for (JsonNode n : arr) {
-                    out.add(mapOneFund(n));
-                }
-            } else if (arr.isObject()) {
-                // tek kayıt dönmüş olabilir
-                out.add(mapOneFund(arr));
-            }
-            return out;
+    public List<FundDto> toFunds(byte[] rawJson) {
+        return toFunds(rawJson, RowFilter.all());
+    }
+
+    /**
+     * Yalnızca filtredeki fon kodlarının satırlarını döner (tarih filtresi uygulanmaz).
+     * Yanıt gövdesi UTF-8 bayt olarak, String'e çözülmeden okunur.
+     */
+    public List<FundDto> toFunds(byte[] rawJson, RowFilter filter) {
+        try {
+            return JsonRowReader.read(rawJson, FUND, codeFilter(filter, F_CODE), FundsParser::mapOneFund, true,
+                    "Empty or null response from TEFAS API", "No 'data' array found in response");
         } catch (TefasParseException | TefasWafBlockedException e) {
             // Re-throw parse/WAF exceptions as-is
             throw e;
         } catch (Exception e) {
-            String preview = rawJson != null && rawJson.length() > 200 ? rawJson.substring(0, 200) : rawJson;
-            throw new TefasParseException("JSON parse failed. Response preview: " + preview, e);
+            throw new TefasParseException(
+                    "JSON parse failed. Response preview: " + JsonRowReader.preview(rawJson, 0, 200), e);
         }
     }
 
-    // FundsParser.java
-
     public List<FundPerformanceDto> toPerformanceDtos(String rawJson) {
-        try {
-            if (rawJson == null || rawJson.trim().isEmpty()) {
-                throw new TefasParseException("Empty or null response from Tefas API");
-            }
-
-            // HTML response kontrolü (WAF engeli veya hata sayfası)
-            String trimmed = rawJson.trim();
-            if (trimmed.startsWith("<") || trimmed.startsWith("<!DOCTYPE") || trimmed.startsWith("<html")) {
-                String preview = trimmed.length() > 500 ? trimmed.substring(0, 500) : trimmed;
-                throw new TefasWafBlockedException(preview);
-            }
-
-            JsonNode root = MAPPER.readTree(rawJson);
-            JsonNode arr = root.isArray() ? root
-                    : (root.has("data") ? root.get("data") : null);
+        return toPerformanceDtos(rawJson, RowFilter.all());
+    }
 
-            if (arr == null) {
-                throw new TefasParseException("No 'data' array found in response");
-            }
+    public List<FundPerformanceDto> toPerformanceDtos(String rawJson, RowFilter filter) {
+        return toPerformanceDtos(utf8(rawJson), filter);
+    }
 
-            List<FundPerformanceDto> out = new ArrayList<>();
-            if (arr.isArray()) {
-                for (JsonNode n : arr) {
-                    out.add(mapOnePerformance(n)); // ✅ mapOne yerine mapOnePerformance
-                }
-            } else if (arr.isObject()) {
-                out.add(mapOnePerformance(arr)); // ✅ mapOne yerine mapOnePerformance
-            }
-            return out;
+    public List<FundPerformanceDto> toPerformanceDtos(byte[] rawJson) {
+        return toPerformanceDtos(rawJson, RowFilter.all());
+    }
 
+    /** Yalnızca filtredeki fon kodlarının satırlarını döner (tarih filtresi uygulanmaz). */
+    public List<FundPerformanceDto> toPerformanceDtos(byte[] rawJson, RowFilter filter) {
+        try {
+            return JsonRowReader.read(rawJson, PERFORMANCE, codeFilter(filter, P_CODE),
+                    FundsParser::mapOnePerformance, false,
+                    "Empty or null response from Tefas API", "No 'data' array found in response");
         } catch (TefasParseException | TefasWafBlockedException e) {
             // Re-throw parse/WAF exceptions as-is
             throw e;
         } catch (Exception e) {
-            String preview = rawJson != null && rawJson.length() > 200 ? rawJson.substring(0, 200) : rawJson;
-            throw new TefasParseException("JSON parse failed. Response preview: " + preview, e);
+            throw new TefasParseException(
+                    "JSON parse failed. Response preview: " + JsonRowReader.preview(rawJson, 0, 200), e);
+        }
+    }
+
+    private static byte[] utf8(String rawJson) {
+        return rawJson == null ? null : rawJson.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static JsonRowReader.Filter codeFilter(RowFilter filter, int codeSlot) {
+        if (!filter.filtersFundCode()) {
+            return JsonRowReader.Filter.NONE;
         }
+        return new JsonRowReader.Filter() {
+            @Override
+            public boolean rejectsEarly(JsonRowReader.Row row, int slot) {
+                return slot == codeSlot && !filter.acceptsFundCode(row.text(codeSlot));
+            }
+
+            @Override
+            public boolean accepts(JsonRowReader.Row row) {
+                return filter.acceptsFundCode(row.text(codeSlot));
+            }
+        };
     }
 
     /**
-     * Maps a single JSON node to FundPerformanceDto.
+     * Tek satırı FundPerformanceDto'ya eşler.
      * Expected fields from table_fund_returns: fonKodu, fonAdi, semsiyeFonTuru,
      * getiri
      */
-    private FundPerformanceDto mapOnePerformance(JsonNode n) {
+    private static FundPerformanceDto mapOnePerformance(JsonRowReader.Row n) {
         FundPerformanceDto dto = new FundPerformanceDto();
 
-        // Table extraction'dan gelen field'lar (camelCase)
-        dto.setFundCode(text(n, "fonKodu", "FONKODU", "FundCode", "fundCode"));
-        dto.setFundName(text(n, "fonAdi", "FONADI", "FONUNVAN", "FonAdi", "FundName", "fundName"));
-        dto.setUmbrellaType(
-                text(n, "semsiyeFonTuru", "SEMSIYEFONTURU", "FONTURACIKLAMA", "SemsiyeFonTuru", "UmbrellaType",
-                        "umbrellaType"));
+        dto.setFundCode(n.text(P_CODE));
+        dto.setFundName(n.text(P_NAME));
+        dto.setUmbrellaType(n.text(P_TYPE));
 
         // Getiri: Önce number olarak dene (GETIRIORANI), sonra string olarak dene
-        Double getiriNumber = number(n, "GETIRIORANI", "getiri", "GETIRI", "Getiri");
-        if (getiriNumber != null) {
-            dto.setGetiri(getiriNumber);
+        if (n.has(P_GETIRI)) {
+            dto.setGetiri(n.number(P_GETIRI));
         } else {
-            // Fallback: String olarak geliyorsa (örn: "1,6770"), parse et
-            String getiriStr = text(n, "getiri", "GETIRI", "Getiri", "GETIRIORANI");
-            if (getiriStr != null && !getiriStr.isEmpty()) {
-                try {
-                    // Türkçe format: "1,6770" -> 1.6770
-                    String normalized = getiriStr.replace(",", ".");
-                    dto.setGetiri(Double.parseDouble(normalized));
-                } catch (NumberFormatException e) {
-                    // Parse edilemezse null bırak
-                    dto.setGetiri(null);
-                }
-            }
+            // Fallback: String olarak geliyorsa Türkçe format ("1,6770", "1.234,56");
+            // parse edilemezse null kalır
+            dto.setGetiri(CellParser.parseNumber(n.text(P_GETIRI_TEXT)));
         }
 
         return dto;
     }
 
-    private FundDto mapOneFund(JsonNode n) {
+    private static FundDto mapOneFund(JsonRowReader.Row n) {
         FundDto dto = new FundDto();
 
         // Türkçe alan adları ile eşleştirme
-        dto.setFundCode(text(n, "FONKODU", "FundCode", "fundCode", "Code"));
-        dto.setFundName(text(n, "FONUNVAN", "FundName", "fundName", "Name"));
-        dto.setUmbrellaType(text(n, "FONTURACIKLAMA", "UmbrellaType", "umbrellaType", "Type"));
-        dto.setIssuer(text(n, "Issuer", "issuer"));
+        dto.setFundCode(n.text(F_CODE));
+        dto.setFundName(n.text(F_NAME));
+        dto.setUmbrellaType(n.text(F_TYPE));
+        dto.setIssuer(n.text(F_ISSUER));
 
-        String inception = text(n, "InceptionDate", "inceptionDate");
+        String inception = n.text(F_INCEPTION);
         if (inception != null && inception.length() >= 10) {
             dto.setInceptionDate(LocalDate.parse(inception.substring(0, 10)));
         }
 
-        dto.setExpenseRatio(number(n, "ExpenseRatio", "expenseRatio"));
+        dto.setExpenseRatio(n.number(F_EXPENSE));
 
         // Getiri alanları (Türkçe alan adları)
-        dto.setGetiri1A(number(n, "GETIRI1A", "getiri1A"));
-        dto.setGetiri3A(number(n, "GETIRI3A", "getiri3A"));
-        dto.setGetiri6A(number(n, "GETIRI6A", "getiri6A"));
-        dto.setGetiri1Y(number(n, "GETIRI1Y", "getiri1Y"));
-        dto.setGetiriYB(number(n, "GETIRIYB", "getiriYB"));
-        dto.setGetiri3Y(number(n, "GETIRI3Y", "getiri3Y"));
-        dto.setGetiri5Y(number(n, "GETIRI5Y", "getiri5Y"));
+        dto.setGetiri1A(n.number(F_1A));
+        dto.setGetiri3A(n.number(F_3A));
+        dto.setGetiri6A(n.number(F_6A));
+        dto.setGetiri1Y(n.number(F_1Y));
+        dto.setGetiriYB(n.number(F_YB));
+        dto.setGetiri3Y(n.number(F_3Y));
+        dto.setGetiri5Y(n.number(F_5Y));
 
         return dto;
     }
-
-    private String text(JsonNode n, String... keys) {
-        for (String k : keys)
-            if (n.has(k) && !n.get(k).isNull())
-                return n.get(k).asText();
-        return null;
-    }
-
-    private Double number(JsonNode n, String... keys) {
-        for (String k : keys)
-            if (n.has(k) && n.get(k).isNumber())
-                return n.get(k).asDouble();
-        return null;
-    }
-}
\ No newline at end of file
+}
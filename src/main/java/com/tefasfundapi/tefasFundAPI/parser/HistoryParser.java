@@ -1,16 +1,14 @@
 package com.tefasfundapi.tefasFundAPI.parser;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
 import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
 import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.ArrayList;
 import java.util.List;
 
 /*
@@ -30,98 +28,110 @@ import java.util.List;
 @Component
 public class HistoryParser {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Satır şeması: yalnızca bu alanlar okunur, geri kalanı token seviyesinde atlanır
+    private static final JsonRowReader.Schema SCHEMA = new JsonRowReader.Schema();
+    private static final int TARIH = SCHEMA.text("TARIH");
+    private static final int FONKODU = SCHEMA.text("FONKODU");
+    private static final int FONUNVAN = SCHEMA.text("FONUNVAN");
+    private static final int FIYAT = SCHEMA.number("FIYAT");
+    private static final int TEDPAYSAYISI = SCHEMA.number("TEDPAYSAYISI");
+    private static final int KISISAYISI = SCHEMA.number("KISISAYISI");
+    private static final int PORTFOYBUYUKLUK = SCHEMA.number("PORTFOYBUYUKLUK");
 
     public List<PriceRowDto> toPriceRows(String rawJson) {
-        try {
-            if (rawJson == null || rawJson.trim().isEmpty()) {
-                throw new TefasParseException("Empty or null response from TEFAS API");
-            }
-
-            String trimmed = rawJson.trim();
-            if (trimmed.startsWith("<") || trimmed.startsWith("<!DOCTYPE") || trimmed.startsWith("<html")) {
-                String preview = trimmed.length() > 500 ? trimmed.substring(0, 500) : trimmed;
-                throw new TefasWafBlockedException(preview);
-            }
+        return toPriceRows(rawJson, RowFilter.all());
+    }
 
-            JsonNode root = MAPPER.readTree(rawJson);
-            JsonNode arr = root.isArray() ? root
-                    : (root.has("data") ? root.get("data") : null);
+    public List<PriceRowDto> toPriceRows(String rawJson, RowFilter filter) {
+        return toPriceRows(rawJson == null ? null : rawJson.getBytes(StandardCharsets.UTF_8), filter);
+    }
 
-            if (arr == null) {
-                throw new TefasParseException("No 'data' array found in response");
-            }
+    public List<PriceRowDto> toPriceRows(byte[] rawJson) {
+        return toPriceRows(rawJson, RowFilter.all());
+    }
 
-            List<PriceRowDto> out = new ArrayList<>();
-            if (arr.isArray()) {
-                for (JsonNode n : arr) {
-                    out.add(mapOne(n));
-                }
-            } else if (arr.isObject()) {
-                out.add(mapOne(arr));
-            }
-            return out;
+    /**
+     * Yalnızca filtreye uyan (fon kodu / tarih) satırları döner; diğerleri DTO'ya dönüştürülmez.
+     * Yanıt gövdesi UTF-8 bayt olarak, String'e çözülmeden okunur.
+     */
+    public List<PriceRowDto> toPriceRows(byte[] rawJson, RowFilter filter) {
+        try {
+            return JsonRowReader.read(rawJson, SCHEMA, filterFor(filter), HistoryParser::mapOne, false,
+                    "Empty or null response from TEFAS API", "No 'data' array found in response");
 
         } catch (TefasParseException | TefasWafBlockedException e) {
             // Re-throw parse/WAF exceptions as-is
             throw e;
         } catch (Exception e) {
-            String preview = rawJson != null && rawJson.length() > 200 ? rawJson.substring(0, 200) : rawJson;
-            throw new TefasParseException("JSON parse failed. Response preview: " + preview, e);
+            throw new TefasParseException(
+                    "JSON parse failed. Response preview: " + JsonRowReader.preview(rawJson, 0, 200), e);
         }
 
     }
 
-    private PriceRowDto mapOne(JsonNode n) {
-        PriceRowDto dto = new PriceRowDto();
+    private static JsonRowReader.Filter filterFor(RowFilter filter) {
+        if (filter.isAll()) {
+            return JsonRowReader.Filter.NONE;
+        }
+        return new JsonRowReader.Filter() {
+            @Override
+            public boolean rejectsEarly(JsonRowReader.Row row, int slot) {
+                if (slot == FONKODU) {
+                    return !filter.acceptsFundCode(row.text(FONKODU));
+                }
+                if (slot == TARIH && filter.filtersDate()) {
+                    return !filter.acceptsDate(toDate(row.text(TARIH)));
+                }
+                return false;
+            }
 
-        // TARIH: Epoch milliseconds (string veya number olabilir) -> LocalDate
-        if (n.has("TARIH") && !n.get("TARIH").isNull()) {
-            long epochMillis;
-            if (n.get("TARIH").isTextual()) {
-                // String olarak geliyorsa parse et
-                epochMillis = Long.parseLong(n.get("TARIH").asText());
-            } else {
-                // Number olarak geliyorsa direkt al
-                epochMillis = n.get("TARIH").asLong();
+            @Override
+            public boolean accepts(JsonRowReader.Row row) {
+                return filter.acceptsFundCode(row.text(FONKODU))
+                        && (!filter.filtersDate() || filter.acceptsDate(toDate(row.text(TARIH))));
             }
-            // Epoch milliseconds -> LocalDate
-            LocalDate date = Instant.ofEpochMilli(epochMillis)
-                    .atZone(ZoneId.systemDefault())
-                    .toLocalDate();
-            dto.setDate(date);
-        }
+        };
+    }
 
-        // FONKODU
-        if (n.has("FONKODU") && !n.get("FONKODU").isNull()) {
-            dto.setFundCode(n.get("FONKODU").asText());
-        }
+    private static PriceRowDto mapOne(JsonRowReader.Row n) {
+        PriceRowDto dto = new PriceRowDto();
 
-        // FONUNVAN
-        if (n.has("FONUNVAN") && !n.get("FONUNVAN").isNull()) {
-            dto.setFundName(n.get("FONUNVAN").asText());
-        }
+        // TARIH: Epoch milliseconds (string veya number olabilir) -> LocalDate
+        dto.setDate(toDate(n.text(TARIH)));
 
-        // FIYAT
-        if (n.has("FIYAT") && !n.get("FIYAT").isNull() && n.get("FIYAT").isNumber()) {
-            dto.setPrice(n.get("FIYAT").asDouble());
-        }
+        dto.setFundCode(n.text(FONKODU));
+        dto.setFundName(n.text(FONUNVAN));
+        dto.setPrice(n.number(FIYAT));
 
         // TEDPAYSAYISI (Outstanding Shares)
-        if (n.has("TEDPAYSAYISI") && !n.get("TEDPAYSAYISI").isNull() && n.get("TEDPAYSAYISI").isNumber()) {
-            dto.setOutstandingShares(n.get("TEDPAYSAYISI").asLong());
+        if (n.has(TEDPAYSAYISI)) {
+            dto.setOutstandingShares((long) n.doubleValue(TEDPAYSAYISI));
         }
 
         // KISISAYISI (Holder Count)
-        if (n.has("KISISAYISI") && !n.get("KISISAYISI").isNull() && n.get("KISISAYISI").isNumber()) {
-            dto.setHolderCount(n.get("KISISAYISI").asInt());
+        if (n.has(KISISAYISI)) {
+            dto.setHolderCount((int) n.doubleValue(KISISAYISI));
         }
 
-        // PORTFOYBUYUKLUK (Total Value) - Eksikti, eklendi
-        if (n.has("PORTFOYBUYUKLUK") && !n.get("PORTFOYBUYUKLUK").isNull() && n.get("PORTFOYBUYUKLUK").isNumber()) {
-            dto.setTotalValue(n.get("PORTFOYBUYUKLUK").asDouble());
-        }
+        // PORTFOYBUYUKLUK (Total Value)
+        dto.setTotalValue(n.number(PORTFOYBUYUKLUK));
 
         return dto;
     }
+
+    private static LocalDate toDate(String tarih) {
+        if (tarih == null) {
+            return null;
+        }
+        long epochMillis;
+        if (tarih.indexOf('.') >= 0 || tarih.indexOf('E') >= 0 || tarih.indexOf('e') >= 0) {
+            epochMillis = (long) Double.parseDouble(tarih);
+        } else {
+            epochMillis = Long.parseLong(tarih);
+        }
+        // Epoch milliseconds -> LocalDate
+        return Instant.ofEpochMilli(epochMillis)
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate();
+    }
 }
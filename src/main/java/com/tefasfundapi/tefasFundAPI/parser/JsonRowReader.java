@@ -0,0 +1,313 @@
+package com.tefasfundapi.tefasFundAPI.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * TEFAS JSON yanıtlarını ağaç (JsonNode) kurmadan, token token okuyan yardımcı.
+ * - Kök ya bir dizi ya da "data" alanı dizi/nesne olan bir nesnedir.
+ * - Her satır nesnesinin yalnızca {@link Schema}'da tanımlı alanları okunur;
+ * diğer alanlar ve iç içe yapılar atlanır.
+ * - Aynı değer birden fazla alan adıyla gelebilir; şemadaki sıra önceliktir
+ * (ilk sıradaki ad, belgedeki sırasından bağımsız olarak kazanır).
+ * - Satır durumu ({@link Row}) tüm satırlar için tekrar kullanılır.
+ * - {@link Filter} ile eşleşmeyen satırlar DTO'ya dönüştürülmez; anahtar alan
+ * okunduğu anda elenen satırın kalan alanları okunmadan atlanır.
+ */
+final class JsonRowReader {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonRowReader() {
+    }
+
+    /** Satır filtresi; parser'lar {@link RowFilter}'ı kendi slotlarına göre uyarlar. */
+    interface Filter {
+        Filter NONE = new Filter() {
+            @Override
+            public boolean rejectsEarly(Row row, int slot) {
+                return false;
+            }
+
+            @Override
+            public boolean accepts(Row row) {
+                return true;
+            }
+        };
+
+        /**
+         * Slota en yüksek öncelikli adla değer atandıktan sonra çağrılır; true
+         * dönerse satırın kalanı atlanır.
+         */
+        boolean rejectsEarly(Row row, int slot);
+
+        /** Satır tamamlandığında çağrılır. */
+        boolean accepts(Row row);
+    }
+
+    /** Alan adı -> (slot, öncelik, sayısal mı) eşlemeleri; bir ad birden fazla slota yazabilir. */
+    static final class Schema {
+        private record Alias(int slot, int rank, boolean numeric) {
+        }
+
+        private final Map<String, Alias[]> aliases = new HashMap<>();
+        private int slots;
+
+        /** Metin alanı; null olmayan her skaler değer metin olarak alınır. */
+        int text(String... names) {
+            return add(false, names);
+        }
+
+        /** Sayısal alan; yalnızca sayı token'ları alınır. */
+        int number(String... names) {
+            return add(true, names);
+        }
+
+        private int add(boolean numeric, String... names) {
+            int slot = slots++;
+            for (int rank = 0; rank < names.length; rank++) {
+                Alias alias = new Alias(slot, rank, numeric);
+                aliases.merge(names[rank], new Alias[] { alias }, (existing, added) -> {
+                    Alias[] merged = Arrays.copyOf(existing, existing.length + 1);
+                    merged[existing.length] = alias;
+                    return merged;
+                });
+            }
+            return slot;
+        }
+    }
+
+    /** Okunmakta olan satırın slot değerleri. */
+    static final class Row {
+        private final Schema schema;
+        private final Filter filter;
+        private final String[] texts;
+        private final double[] numbers;
+        private final int[] ranks;
+        private boolean rejected;
+
+        private Row(Schema schema, Filter filter) {
+            this.schema = schema;
+            this.filter = filter;
+            this.texts = new String[schema.slots];
+            this.numbers = new double[schema.slots];
+            this.ranks = new int[schema.slots];
+            reset();
+        }
+
+        private void reset() {
+            Arrays.fill(texts, null);
+            Arrays.fill(ranks, Integer.MAX_VALUE);
+            rejected = false;
+        }
+
+        private boolean accepted() {
+            return !rejected && filter.accepts(this);
+        }
+
+        boolean has(int slot) {
+            return ranks[slot] != Integer.MAX_VALUE;
+        }
+
+        String text(int slot) {
+            return texts[slot];
+        }
+
+        Double number(int slot) {
+            return has(slot) ? numbers[slot] : null;
+        }
+
+        /** Kutulamadan sayısal değer; yalnızca has(slot) true iken anlamlıdır. */
+        double doubleValue(int slot) {
+            return numbers[slot];
+        }
+
+        private void accept(String name, JsonParser p) throws IOException {
+            Schema.Alias[] matches = schema.aliases.get(name);
+            JsonToken token = p.currentToken();
+            if (matches != null && token != JsonToken.VALUE_NULL) {
+                String text = null;
+                for (Schema.Alias alias : matches) {
+                    int slot = alias.slot();
+                    if (alias.rank() >= ranks[slot]) {
+                        continue;
+                    }
+                    if (alias.numeric()) {
+                        if (token.isNumeric()) {
+                            numbers[slot] = p.getDoubleValue();
+                            ranks[slot] = alias.rank();
+                            checkEarly(slot);
+                        }
+                    } else {
+                        if (text == null) {
+                            // JsonNode.asText() ile aynı: nesne/dizi için boş metin
+                            text = token.isStructStart() ? "" : p.getText();
+                        }
+                        texts[slot] = text;
+                        ranks[slot] = alias.rank();
+                        checkEarly(slot);
+                    }
+                }
+            }
+            p.skipChildren();
+        }
+
+        private void checkEarly(int slot) {
+            // Daha öncelikli bir ad sonradan gelip değeri değiştirebilir; yalnızca kesinleşen değerle ele
+            if (!rejected && ranks[slot] == 0 && filter.rejectsEarly(this, slot)) {
+                rejected = true;
+            }
+        }
+    }
+
+    /**
+     * Yanıttaki satırları okur.
+     *
+     * @param rootObjectIsRow "data" alanı olmayan kök nesne tek satır sayılır;
+     *                        false ise bu durumda missingDataMessage ile hata
+     *                        fırlatılır. "data" skaler ise sonuç boştur.
+     * @param filter          yalnızca kabul ettiği satırlar döner
+     */
+    static <T> List<T> read(byte[] rawJson, Schema schema, Filter filter, Function<Row, T> mapper,
+            boolean rootObjectIsRow, String emptyMessage, String missingDataMessage) throws IOException {
+        checkBody(rawJson, emptyMessage);
+
+        List<T> out = new ArrayList<>();
+        Row row = new Row(schema, filter);
+        // Jackson UTF-8 baytlarını doğrudan okur; String'e çözme adımı yoktur
+        try (JsonParser p = FACTORY.createParser(rawJson)) {
+            JsonToken token = p.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readArray(p, row, mapper, out);
+                return out;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                if (rootObjectIsRow) {
+                    return out;
+                }
+                throw new TefasParseException(missingDataMessage);
+            }
+
+            boolean dataFound = false;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken value = p.nextToken();
+                if (!dataFound && "data".equals(name)) {
+                    dataFound = true;
+                    if (value == JsonToken.START_ARRAY) {
+                        readArray(p, row, mapper, out);
+                    } else if (value == JsonToken.START_OBJECT) {
+                        if (readObject(p, row)) {
+                            out.add(mapper.apply(row));
+                        }
+                    }
+                } else if (rootObjectIsRow) {
+                    row.accept(name, p);
+                } else {
+                    p.skipChildren();
+                }
+            }
+            if (!dataFound) {
+                if (!rootObjectIsRow) {
+                    throw new TefasParseException(missingDataMessage);
+                }
+                if (row.accepted()) {
+                    out.add(mapper.apply(row));
+                }
+            }
+            return out;
+        }
+    }
+
+    private static <T> void readArray(JsonParser p, Row row, Function<Row, T> mapper, List<T> out)
+            throws IOException {
+        JsonToken token;
+        while ((token = p.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            boolean accepted;
+            if (token == JsonToken.START_OBJECT) {
+                accepted = readObject(p, row);
+            } else {
+                p.skipChildren();
+                row.reset();
+                accepted = row.accepted();
+            }
+            if (accepted) {
+                out.add(mapper.apply(row));
+            }
+        }
+    }
+
+    /** Nesneyi satıra okur; satır filtreye takılırsa kalan alanları okumadan atlar ve false döner. */
+    private static boolean readObject(JsonParser p, Row row) throws IOException {
+        row.reset();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            row.accept(name, p);
+            if (row.rejected) {
+                skipRest(p);
+                return false;
+            }
+        }
+        return row.accepted();
+    }
+
+    /** Bir nesnenin içindeyken kalan alanları değerlerini okumadan geçer. */
+    private static void skipRest(JsonParser p) throws IOException {
+        JsonToken token;
+        while ((token = p.nextToken()) == JsonToken.FIELD_NAME) {
+            p.nextToken();
+            p.skipChildren();
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new TefasParseException("Unexpected token " + token + " while skipping row");
+        }
+    }
+
+    /**
+     * Boş gövde ve HTML (WAF/hata sayfası) kontrolü; gövdeyi kopyalamadan
+     * ilk boşluk olmayan bayta bakar.
+     */
+    private static void checkBody(byte[] rawJson, String emptyMessage) {
+        int first = firstNonWhitespace(rawJson);
+        if (first < 0) {
+            throw new TefasParseException(emptyMessage);
+        }
+        if (rawJson[first] == '<') {
+            throw new TefasWafBlockedException(preview(rawJson, first, 500));
+        }
+    }
+
+    /** İlk boşluk olmayan baytın indeksi; gövde boşsa ya da yalnızca boşluksa -1. */
+    static int firstNonWhitespace(byte[] body) {
+        if (body == null) {
+            return -1;
+        }
+        for (int i = 0; i < body.length; i++) {
+            // UTF-8'de ASCII dışı baytlar negatiftir, boşluk sayılmaz
+            if (body[i] < 0 || body[i] > ' ') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Hata mesajları için gövdenin yalnızca ilk maxBytes baytını çözer. */
+    static String preview(byte[] body, int from, int maxBytes) {
+        if (body == null) {
+            return null;
+        }
+        return new String(body, from, Math.min(body.length - from, maxBytes), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package com.tefasfundapi.tefasFundAPI.parser;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parser'lara geçirilen satır filtresi (predicate pushdown).
+ * Eşleşmeyen satırlar parse sırasında, DTO oluşturulmadan atlanır.
+ * - Fon kodu karşılaştırması büyük/küçük harf duyarsızdır.
+ * - Tarih aralığı kapalıdır [from, to]; tarihi olmayan satırlarda yalnızca
+ * tarih filtresi yoksa geçerlidir.
+ */
+public final class RowFilter {
+    private static final RowFilter ALL = new RowFilter(null, null, null);
+
+    private final Set<String> fundCodes;
+    private final LocalDate from;
+    private final LocalDate to;
+
+    private RowFilter(Set<String> fundCodes, LocalDate from, LocalDate to) {
+        this.fundCodes = fundCodes;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static RowFilter all() {
+        return ALL;
+    }
+
+    /** Yalnızca verilen fon kodlarının satırları. */
+    public static RowFilter fundCodes(Collection<String> codes) {
+        return new RowFilter(codes.stream()
+                .map(c -> c.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet()), null, null);
+    }
+
+    /** Bu filtreye ek olarak tarih aralığı [from, to]; null sınır açık demektir. */
+    public RowFilter between(LocalDate from, LocalDate to) {
+        return new RowFilter(fundCodes, from, to);
+    }
+
+    public boolean isAll() {
+        return fundCodes == null && from == null && to == null;
+    }
+
+    public boolean filtersFundCode() {
+        return fundCodes != null;
+    }
+
+    public boolean filtersDate() {
+        return from != null || to != null;
+    }
+
+    public boolean acceptsFundCode(String code) {
+        return fundCodes == null || (code != null && fundCodes.contains(code.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    public boolean acceptsDate(LocalDate date) {
+        if (!filtersDate()) {
+            return true;
+        }
+        return date != null && (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+    }
+
+    @Override
+    public String toString() {
+        return "RowFilter[fundCodes=" + fundCodes + ", from=" + from + ", to=" + to + "]";
+    }
+}
@@ -0,0 +1,259 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Upstream çağrıları için öncelikli kabul kuyruğu.
+ * - Aynı anda en fazla pool.maxSize çağrı çalışır; fazlası browser açmaz,
+ * burada öncelik sınıfının ({@link Priority}) kuyruğunda sırayla bekler.
+ * - Boşalan yer, bekleyen sınıflar arasında ağırlıklı adil paylaştırılır
+ * (stride scheduling, bitiş etiketine göre): ağırlığı 4 olan INTERACTIVE,
+ * ağırlığı 1 olan BULK'a karşı her 5 yerin 4'ünü alır. Eşitlikte ve yeni
+ * gelen INTERACTIVE istekte kuyruktaki BULK işin önüne geçilir; BULK yalnızca
+ * payı birikince sıra alır.
+ * - BULK işler admission.reservedForInteractive kadar yeri hiç kullanamaz;
+ * uzun süren geri doldurmalar sırasında interaktif istek çalışan bir BULK
+ * işin bitmesini beklemez. BULK'a en az bir yer her zaman kalır: ayrılan yer
+ * pool.maxSize'a eşit ya da büyükse (ör. max-size=1) ayırma uygulanmaz, BULK
+ * tek yeri de alabilir ve interaktif istek o işin bitmesini bekler; yalnızca
+ * kuyrukta bekleyen BULK işlerin önüne geçer. Bu durumda açılışta uyarı loglanır.
+ * - Bekleyen sayısı sınıf başına admission.maxQueue'yu aşarsa istek beklemeden,
+ * bekleme admission.maxQueueWaitMs'i (ya da istek bütçesini) aşarsa süre
+ * sonunda {@link TefasOverloadedException} ile reddedilir.
+ * Metrikler (priority etiketli): tefas.admission.queue.depth,
+ * tefas.admission.in.flight, tefas.admission.wait (Timer),
+ * tefas.admission.rejected{reason}.
+ */
+@Component
+public class AdmissionControl {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final PlaywrightConfig config;
+    private final int maxConcurrent;
+    private final int maxBulkInFlight;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private int inFlight;
+    /** Son seçilen sınıfın pass değeri; boş kuyruğa yeni gelen sınıf buradan başlar. */
+    private double virtualTime;
+
+    public AdmissionControl(PlaywrightConfig config, MeterRegistry registry) {
+        this.config = config;
+        this.maxConcurrent = Math.max(1, config.getPool().getMaxSize());
+        int reserved = config.getAdmission().getReservedForInteractive();
+        this.maxBulkInFlight = Math.max(1, maxConcurrent - reserved);
+        if (reserved > 0 && reserved >= maxConcurrent) {
+            log.warn("admission.reserved-for-interactive={} leaves no slot for BULK with pool.max-size={}; "
+                    + "the reservation is not applied, BULK may hold the only slot and INTERACTIVE requests "
+                    + "only go ahead of queued BULK work", reserved, maxConcurrent);
+        }
+        lanes.put(Priority.INTERACTIVE, new Lane(Priority.INTERACTIVE,
+                config.getAdmission().getInteractiveWeight(), registry));
+        lanes.put(Priority.BULK, new Lane(Priority.BULK, config.getAdmission().getBulkWeight(), registry));
+    }
+
+    /** {@link Priority#INTERACTIVE} ile {@link #call(Priority, String, Deadline, Supplier)}. */
+    public <T> T call(String operation, Deadline deadline, Supplier<T> work) {
+        return call(Priority.INTERACTIVE, operation, deadline, work);
+    }
+
+    /**
+     * Sıra gelince work'ü çağıran thread'de çalıştırır.
+     *
+     * @throws TefasOverloadedException kuyruk doluysa ya da bekleme süresi aşılırsa
+     */
+    public <T> T call(Priority priority, String operation, Deadline deadline, Supplier<T> work) {
+        Lane lane = lanes.get(priority);
+        acquire(lane, operation, deadline);
+        try {
+            return work.get();
+        } finally {
+            release(lane);
+        }
+    }
+
+    private void acquire(Lane lane, String operation, Deadline deadline) {
+        long startNanos = System.nanoTime();
+        Waiter waiter = null;
+        lock.lock();
+        try {
+            if (lane.queue.isEmpty() && canRun(lane)) {
+                admit(lane);
+                lane.waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (lane.queue.size() >= config.getAdmission().getMaxQueue()) {
+                lane.rejectedQueueFull.increment();
+                throw overloaded(operation + " rejected: " + lane.priority
+                        + " admission queue is full (" + lane.queue.size() + " waiting)");
+            }
+            if (lane.queue.isEmpty()) {
+                // Boştan dönen sınıf birikmiş payıyla diğerini aç bırakmasın
+                lane.pass = Math.max(lane.pass, virtualTime);
+            }
+            waiter = new Waiter(lock.newCondition());
+            lane.queue.addLast(waiter);
+
+            long waitMs = Math.min(config.getAdmission().getMaxQueueWaitMs(), deadline.remainingMs());
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+            while (!waiter.admitted && remainingNanos > 0) {
+                remainingNanos = waiter.granted.awaitNanos(remainingNanos);
+            }
+            if (!waiter.admitted) {
+                lane.queue.remove(waiter);
+                lane.rejectedTimeout.increment();
+                throw overloaded(operation + " rejected: no upstream slot for " + lane.priority
+                        + " within " + waitMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            if (waiter.admitted) {
+                // Yer verildikten sonra kesildi: yeri bir sonrakine bırak
+                inFlight--;
+                lane.inFlight--;
+                dispatch();
+            } else {
+                lane.queue.remove(waiter);
+            }
+            Thread.currentThread().interrupt();
+            throw new TefasClientException("Interrupted while waiting for admission", e);
+        } finally {
+            lock.unlock();
+        }
+        lane.waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void release(Lane lane) {
+        lock.lock();
+        try {
+            inFlight--;
+            lane.inFlight--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Boş yerleri bekleyenlere verir; lock tutulurken çağrılır. */
+    private void dispatch() {
+        while (inFlight < maxConcurrent) {
+            Lane next = null;
+            for (Lane lane : lanes.values()) {
+                if (!lane.queue.isEmpty() && canRun(lane)
+                        && (next == null || lane.pass + lane.stride < next.pass + next.stride)) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            Waiter waiter = next.queue.pollFirst();
+            virtualTime = next.pass;
+            next.pass += next.stride;
+            admit(next);
+            waiter.admitted = true;
+            waiter.granted.signal();
+        }
+    }
+
+    private boolean canRun(Lane lane) {
+        return inFlight < maxConcurrent && (lane.priority != Priority.BULK || lane.inFlight < maxBulkInFlight);
+    }
+
+    /** Pass yalnızca yarışılan (kuyruktan) verilen yerlerde ilerler; boşta hızlı yol payı tüketmez. */
+    private void admit(Lane lane) {
+        inFlight++;
+        lane.inFlight++;
+    }
+
+    private TefasOverloadedException overloaded(String message) {
+        log.warn("{} (in flight {}/{})", message, inFlight, maxConcurrent);
+        return new TefasOverloadedException(message, config.getAdmission().getRetryAfterSeconds());
+    }
+
+    /** Kuyrukta bekleyen toplam çağrı sayısı. */
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return lanes.values().stream().mapToInt(lane -> lane.queue.size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Verilen sınıfın kuyruğunda bekleyen çağrı sayısı. */
+    public int queueDepth(Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority).queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Şu an çalışan upstream çağrısı sayısı. */
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Öncelik sınıfı başına kuyruk, stride ve metrikler. */
+    private final class Lane {
+        private final Priority priority;
+        private final double stride;
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private final Timer waitTimer;
+        private final Counter rejectedQueueFull;
+        private final Counter rejectedTimeout;
+        private double pass;
+        private int inFlight;
+
+        Lane(Priority priority, int weight, MeterRegistry registry) {
+            this.priority = priority;
+            this.stride = 1.0 / Math.max(1, weight);
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("tefas.admission.queue.depth", this, lane -> queueDepth(lane.priority))
+                    .tag("priority", tag).register(registry);
+            Gauge.builder("tefas.admission.in.flight", this, lane -> lane.inFlight)
+                    .tag("priority", tag).register(registry);
+            this.waitTimer = Timer.builder("tefas.admission.wait").tag("priority", tag).register(registry);
+            this.rejectedQueueFull = Counter.builder("tefas.admission.rejected").tag("priority", tag)
+                    .tag("reason", "queue_full").register(registry);
+            this.rejectedTimeout = Counter.builder("tefas.admission.rejected").tag("priority", tag)
+                    .tag("reason", "queue_timeout").register(registry);
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition granted;
+        private boolean admitted;
+
+        Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.client.BrowserPool;
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.client.SessionHarvester;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Browser havuzunun zamanlanmış arka plan işleri: ısınmış context yenileme
+ * ({@link BrowserPool#refreshWarmContexts}) ve doğrudan HTTP modu için oturum
+ * toplama ({@link SessionHarvester#harvest}).
+ * - Her iş {@link AdmissionControl}'den {@link Priority#BULK} olarak geçer;
+ * kiraladığı Browser kabul sayısına dahildir. Böylece kabul edilmiş bir
+ * INTERACTIVE çağrı havuzda arka plan işinin arkasında beklemez ve
+ * admission.reservedForInteractive korunur.
+ * - Yer bulunamazsa o turdaki iş atlanır, bir sonraki zamanlamada denenir.
+ */
+@Component
+public class BrowserMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(BrowserMaintenance.class);
+
+    private final PlaywrightConfig config;
+    private final BrowserPool browserPool;
+    private final SessionHarvester sessionHarvester;
+    private final AdmissionControl admissionControl;
+
+    public BrowserMaintenance(PlaywrightConfig config, BrowserPool browserPool, SessionHarvester sessionHarvester,
+            AdmissionControl admissionControl) {
+        this.config = config;
+        this.browserPool = browserPool;
+        this.sessionHarvester = sessionHarvester;
+        this.admissionControl = admissionControl;
+    }
+
+    @Scheduled(fixedDelayString = "${tefas.playwright.session.refresh-check-interval-ms:60000}")
+    void refreshWarmContexts() {
+        runBulk("refreshWarmContexts", browserPool::refreshWarmContexts);
+    }
+
+    @Scheduled(fixedDelayString = "${tefas.playwright.direct.harvest-interval-ms:300000}")
+    void harvestSession() {
+        if (!config.getDirect().isEnabled()) {
+            return;
+        }
+        runBulk("harvestSession", sessionHarvester::harvest);
+    }
+
+    private void runBulk(String operation, Runnable job) {
+        try {
+            admissionControl.call(Priority.BULK, operation, Deadline.after(config.getRequestBudgetMs()), () -> {
+                job.run();
+                return null;
+            });
+        } catch (TefasOverloadedException e) {
+            log.debug("Skipping background {} this round: {}", operation, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Scheduled {} failed: {}", operation, e.getMessage());
+        }
+    }
+}
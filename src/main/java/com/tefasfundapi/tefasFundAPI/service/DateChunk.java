@@ -0,0 +1,36 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kapalı tarih aralığı [start, end]. Uzun aralıklar upstream'in kabul ettiği
+ * boyutta ardışık, çakışmayan parçalara bölünür.
+ */
+public record DateChunk(LocalDate start, LocalDate end) {
+
+    /**
+     * [start, end] aralığını en fazla chunkDays günlük parçalara böler.
+     * chunkDays <= 0 ise aralık bölünmez.
+     */
+    public static List<DateChunk> split(LocalDate start, LocalDate end, int chunkDays) {
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("start must be <= end");
+        }
+        if (chunkDays <= 0) {
+            return List.of(new DateChunk(start, end));
+        }
+        List<DateChunk> chunks = new ArrayList<>();
+        LocalDate chunkStart = start;
+        while (!chunkStart.isAfter(end)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1L);
+            if (chunkEnd.isAfter(end)) {
+                chunkEnd = end;
+            }
+            chunks.add(new DateChunk(chunkStart, chunkEnd));
+            chunkStart = chunkEnd.plusDays(1);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,119 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.client.FundsClient;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamCircuitBreaker;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamEndpoint;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.FundDto;
+import com.tefasfundapi.tefasFundAPI.parser.FundsParser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tüm fonların bellekteki değişmez anlık görüntüsü.
+ * - Evren tek bir comparison çağrısıyla ({@link FundsClient#fetchFunds}) çekilir
+ * ve büyük harf fon kodu -> {@link FundDto} haritasına dönüştürülür.
+ * - Yenileme yeni bir harita kurar ve atomik olarak değiştirir; okuyucular
+ * kilitsiz, tutarlı bir görüntü görür.
+ * - Yenileme başarısız olursa ya da boş dönerse eski görüntü kullanılmaya devam eder;
+ * comparison devresi açıksa yenileme kuyruğa girmeden hemen başarısız olur.
+ * - İlk istek görüntü yüklenmeden gelirse yükleme eş zamanlı isteklerle paylaşılır.
+ */
+@Component
+public class FundUniverse {
+    private static final Logger log = LoggerFactory.getLogger(FundUniverse.class);
+
+    private final FundsClient fundsClient;
+    private final FundsParser fundsParser;
+    private final PlaywrightConfig config;
+    private final AdmissionControl admissionControl;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final SingleFlight<String, Snapshot> loads = new SingleFlight<>();
+
+    /** Yüklenme anındaki fon evreni. */
+    public record Snapshot(Map<String, FundDto> byCode, long loadedAt) {
+    }
+
+    public FundUniverse(FundsClient fundsClient, FundsParser fundsParser, PlaywrightConfig config,
+            AdmissionControl admissionControl, UpstreamCircuitBreaker circuitBreaker) {
+        this.fundsClient = fundsClient;
+        this.fundsParser = fundsParser;
+        this.config = config;
+        this.admissionControl = admissionControl;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Fonu anlık görüntüden bulur; görüntü henüz yoksa önce verilen öncelikle,
+     * isteğin bütçesi içinde yükler.
+     */
+    public Optional<FundDto> find(String code, Priority priority, Deadline deadline) {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            snapshot = refresh(priority, deadline);
+        }
+        return Optional.ofNullable(snapshot.byCode().get(code.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Kod yüklü anlık görüntüde var mı. Görüntü yoksa yükleme yapmaz, false döner.
+     */
+    public boolean isKnown(String code) {
+        Snapshot snapshot = current.get();
+        return snapshot != null && snapshot.byCode().containsKey(code.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Scheduled(fixedDelayString = "${tefas.playwright.universe.refresh-interval-ms:900000}")
+    void scheduledRefresh() {
+        if (!config.getUniverse().isEnabled()) {
+            return;
+        }
+        try {
+            refresh(Priority.BULK, Deadline.after(config.getRequestBudgetMs()));
+        } catch (Exception e) {
+            log.warn("Scheduled fund universe refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Evreni upstream'den yeniden çeker ve görüntüyü değiştirir. Zamanlanmış
+     * yenileme BULK çalışır. Süren bir yüklemeye katılan çağrı en fazla kendi
+     * bütçesi kadar bekler.
+     */
+    public Snapshot refresh(Priority priority, Deadline deadline) {
+        return loads.execute("universe", deadline, () -> {
+            circuitBreaker.checkAvailable(UpstreamEndpoint.COMPARISON, "fetchFunds");
+            byte[] raw = admissionControl.call(priority, "fetchFunds", deadline, () -> fundsClient.fetchFunds(deadline));
+            List<FundDto> funds = fundsParser.toFunds(raw);
+            Snapshot previous = current.get();
+            if (funds.isEmpty() && previous != null) {
+                log.warn("Fund universe refresh returned no funds, keeping snapshot with {} funds",
+                        previous.byCode().size());
+                return previous;
+            }
+
+            Map<String, FundDto> byCode = new HashMap<>(funds.size() * 2);
+            for (FundDto fund : funds) {
+                if (fund.getFundCode() != null && !fund.getFundCode().isBlank()) {
+                    byCode.putIfAbsent(fund.getFundCode().trim().toUpperCase(Locale.ROOT), fund);
+                }
+            }
+            Snapshot next = new Snapshot(Map.copyOf(byCode), System.currentTimeMillis());
+            current.set(next);
+            log.info("Fund universe loaded with {} funds", byCode.size());
+            return next;
+        });
+    }
+}
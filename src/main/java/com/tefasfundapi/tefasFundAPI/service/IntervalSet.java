@@ -0,0 +1,87 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ayrık, kapalı tarih aralıklarından oluşan küme.
+ * Eklenen aralıklar çakışan ya da bitişik olanlarla birleştirilir; verilen bir
+ * aralığın kapsanmayan kısımları {@link #gaps} ile bulunur.
+ * Thread-safe değildir.
+ */
+public final class IntervalSet {
+    /** Aralık başlangıcı -> bitişi (dahil). */
+    private final TreeMap<LocalDate, LocalDate> ranges = new TreeMap<>();
+
+    public void add(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            return;
+        }
+        LocalDate newStart = start;
+        LocalDate newEnd = end;
+
+        Map.Entry<LocalDate, LocalDate> floor = ranges.floorEntry(start);
+        if (floor != null && !floor.getValue().plusDays(1).isBefore(start)) {
+            newStart = floor.getKey();
+            if (floor.getValue().isAfter(newEnd)) {
+                newEnd = floor.getValue();
+            }
+            ranges.remove(floor.getKey());
+        }
+
+        Map.Entry<LocalDate, LocalDate> next;
+        while ((next = ranges.ceilingEntry(newStart)) != null && !next.getKey().isAfter(newEnd.plusDays(1))) {
+            if (next.getValue().isAfter(newEnd)) {
+                newEnd = next.getValue();
+            }
+            ranges.remove(next.getKey());
+        }
+        ranges.put(newStart, newEnd);
+    }
+
+    /** [start, end] içinde kümede olmayan alt aralıklar, tarih sırasıyla. */
+    public List<DateChunk> gaps(LocalDate start, LocalDate end) {
+        List<DateChunk> gaps = new ArrayList<>();
+        if (start.isAfter(end)) {
+            return gaps;
+        }
+        LocalDate cursor = start;
+        Map.Entry<LocalDate, LocalDate> floor = ranges.floorEntry(start);
+        if (floor != null && !floor.getValue().isBefore(start)) {
+            cursor = floor.getValue().plusDays(1);
+        }
+        for (Map.Entry<LocalDate, LocalDate> range : ranges.tailMap(start, false).entrySet()) {
+            if (cursor.isAfter(end) || range.getKey().isAfter(end)) {
+                break;
+            }
+            if (range.getKey().isAfter(cursor)) {
+                gaps.add(new DateChunk(cursor, range.getKey().minusDays(1)));
+            }
+            if (!range.getValue().isBefore(cursor)) {
+                cursor = range.getValue().plusDays(1);
+            }
+        }
+        if (!cursor.isAfter(end)) {
+            gaps.add(new DateChunk(cursor, end));
+        }
+        return gaps;
+    }
+
+    public boolean covers(LocalDate start, LocalDate end) {
+        return gaps(start, end).isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    /** Kümedeki aralıklar, tarih sırasıyla. */
+    public List<DateChunk> intervals() {
+        List<DateChunk> out = new ArrayList<>(ranges.size());
+        ranges.forEach((s, e) -> out.add(new DateChunk(s, e)));
+        return out;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fon bazında NAV önbelleği.
+ * Satırlar ve çekilmiş tarih aralıkları {@link NavStore}'da kalıcı tutulur;
+ * bir sorgunun yalnızca kapsanmayan kısımları ({@link #missing}) upstream'e gider.
+ * Verisi olmayan günler (hafta sonu, tatil) de kapsanmış sayılır.
+ *
+ * Kapanmış günlerin NAV'ı değişmez ve süresiz saklanır. Bugün kalıcı
+ * kapsama eklenmez; history.todayTtlMs boyunca taze kabul edilir, gün
+ * döndüğünde bir kez daha çekilip kalıcı hale gelir. Bugünden sonraki
+ * tarihler için veri olamayacağından sorgu bugüne kırpılır.
+ */
+@Component
+public class NavCache {
+
+    private final PlaywrightConfig config;
+    private final NavStore store;
+    private final Clock clock;
+    private final Map<String, TodayFetch> todayFetches = new ConcurrentHashMap<>();
+
+    private record TodayFetch(LocalDate date, long fetchedAt) {
+    }
+
+    @Autowired
+    public NavCache(PlaywrightConfig config, NavStore store) {
+        this(config, store, Clock.system(ZoneId.of(config.getTimezone())));
+    }
+
+    NavCache(PlaywrightConfig config, NavStore store, Clock clock) {
+        this.config = config;
+        this.store = store;
+        this.clock = clock;
+    }
+
+    /** [start, end] için önbellekte olmayan (ya da bugünün süresi dolmuş) aralıklar. */
+    public List<DateChunk> missing(String fundCode, LocalDate start, LocalDate end) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate effectiveEnd = end.isAfter(today) ? today : end;
+        if (start.isAfter(effectiveEnd)) {
+            return List.of();
+        }
+
+        LocalDate yesterday = today.minusDays(1);
+        List<DateChunk> gaps = new ArrayList<>(
+                store.gaps(fundCode, start, effectiveEnd.isAfter(yesterday) ? yesterday : effectiveEnd));
+        if (effectiveEnd.equals(today) && !isTodayFresh(fundCode, today)) {
+            int last = gaps.size() - 1;
+            if (last >= 0 && gaps.get(last).end().equals(yesterday)) {
+                gaps.set(last, new DateChunk(gaps.get(last).start(), today));
+            } else {
+                gaps.add(new DateChunk(today, today));
+            }
+        }
+        return gaps;
+    }
+
+    /**
+     * Bir doldurmada çekilmiş aralıkları ve satırlarını tek yazımda kaydeder;
+     * satırlar yalnızca bu fona ait olmalıdır.
+     */
+    public void put(String fundCode, List<DateChunk> ranges, List<PriceRowDto> rows) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate yesterday = today.minusDays(1);
+        List<DateChunk> covered = new ArrayList<>(ranges.size());
+        boolean coversToday = false;
+        for (DateChunk range : ranges) {
+            covered.add(new DateChunk(range.start(), range.end().isAfter(yesterday) ? yesterday : range.end()));
+            coversToday |= !range.start().isAfter(today) && !range.end().isBefore(today);
+        }
+        store.write(fundCode, covered, rows);
+        if (coversToday) {
+            todayFetches.put(fundCode, new TodayFetch(today, clock.millis()));
+        }
+    }
+
+    /** Önbellekteki [start, end] satırları, tarih sırasıyla. */
+    public List<PriceRowDto> get(String fundCode, LocalDate start, LocalDate end) {
+        return store.read(fundCode, start, end);
+    }
+
+    private boolean isTodayFresh(String fundCode, LocalDate today) {
+        TodayFetch fetch = todayFetches.get(fundCode);
+        return fetch != null && today.equals(fetch.date())
+                && clock.millis() - fetch.fetchedAt() < config.getHistory().getTodayTtlMs();
+    }
+}
@@ -0,0 +1,501 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * NAV satırlarının kalıcı, kolon bazlı deposu.
+ * Her fon için tek bir memory-mapped dosya tutulur ({@code KOD.<nesil>.nav}):
+ *
+ * <pre>
+ * header   : magic, version, rowCount, intervalCount, nameLength, fundName (UTF-8)
+ * kapsama  : intervalCount x (startEpochDay int, endEpochDay int)
+ * kolonlar : epochDay int[n] | price double[n] | outstandingShares long[n]
+ *            | totalValue double[n] | holderCount int[n]
+ * </pre>
+ *
+ * - Satırlar tarihe göre sıralıdır; okuma ikili arama + dilim okumasıdır.
+ * - Fon adı satır başına değil, dosya başına bir kez saklanır.
+ * - Null değerler NaN / MIN_VALUE ile kodlanır.
+ * - Yazma seyrektir (önbellek ıskası) ve bir doldurmada fon başına bir kez
+ * yapılır: map edilmiş kolonlar sıralı yeni satırlarla kolon kolon küçük bir
+ * tampon üzerinden geçici dosyaya birleştirilir, tek fsync yapılır ve dosya
+ * bir sonraki nesil adıyla taşınıp map edilir. Map edilmiş dosyanın üzerine
+ * yazılmaz (Windows buna izin vermez); eski nesil silinir, silinemezse bir
+ * sonraki açılışta temizlenir. Okuyucular her zaman değişmez bir
+ * {@link Segment} görür.
+ * - Veri heap dışında (page cache) durur; heap'te fon başına yalnızca küçük bir
+ * Segment nesnesi kalır. En fazla maxOpenFunds Segment tutulur; en uzun süre
+ * kullanılmayan bırakılır (LRU) ve gerektiğinde diskten yeniden map edilir.
+ */
+@Component
+public class NavStore {
+    private static final Logger log = LoggerFactory.getLogger(NavStore.class);
+
+    private static final int MAGIC = 0x544E4156; // "TNAV"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4 + 2;
+    private static final int ROW_BYTES = 4 + 8 + 8 + 8 + 4;
+    private static final String FILE_SUFFIX = ".nav";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final int WRITE_LOCK_STRIPES = 64;
+    private static final int DEFAULT_MAX_OPEN_FUNDS = 2000;
+
+    private final Path root;
+    private final LinkedHashMap<String, Segment> segments;
+    /** Fon koduna göre şeritlenmiş yazma kilitleri; kod başına nesne birikmez. */
+    private final Object[] writeLocks = new Object[WRITE_LOCK_STRIPES];
+
+    @Autowired
+    public NavStore(PlaywrightConfig config) {
+        this(Paths.get(config.getHistory().getStorePath()), config.getHistory().getMaxOpenFunds());
+    }
+
+    public NavStore(Path root) {
+        this(root, DEFAULT_MAX_OPEN_FUNDS);
+    }
+
+    public NavStore(Path root, int maxOpenFunds) {
+        this.root = root;
+        int capacity = Math.max(1, maxOpenFunds);
+        this.segments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Segment> eldest) {
+                return size() > capacity;
+            }
+        };
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new Object();
+        }
+    }
+
+    /** Bellekte map edilmiş tutulan fon sayısı. */
+    public int openFunds() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    /** [start, end] içinde bu fon için henüz kapsanmamış aralıklar. */
+    public List<DateChunk> gaps(String fundCode, LocalDate start, LocalDate end) {
+        return segment(fundCode).covered.gaps(start, end);
+    }
+
+    /** [start, end] aralığındaki satırlar, tarih sırasıyla. */
+    public List<PriceRowDto> read(String fundCode, LocalDate start, LocalDate end) {
+        Segment segment = segment(fundCode);
+        int from = segment.lowerBound((int) start.toEpochDay());
+        int to = segment.lowerBound((int) end.toEpochDay() + 1);
+        List<PriceRowDto> rows = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            rows.add(segment.row(fundCode, i));
+        }
+        return rows;
+    }
+
+    /**
+     * Satırları fonun deposuyla birleştirir (aynı tarih yenisiyle değişir) ve
+     * [coveredStart, coveredEnd] aralığını kapsanmış olarak işaretler.
+     * coveredStart > coveredEnd ise kapsama değişmez.
+     */
+    public void write(String fundCode, LocalDate coveredStart, LocalDate coveredEnd, List<PriceRowDto> rows) {
+        write(fundCode, List.of(new DateChunk(coveredStart, coveredEnd)), rows);
+    }
+
+    /**
+     * Satırları fonun deposuyla tek dosya yazımında birleştirir (aynı tarih
+     * yenisiyle değişir) ve covered aralıklarını kapsanmış olarak işaretler.
+     * Başlangıcı bitişinden sonra olan aralıklar kapsamayı değiştirmez.
+     */
+    public void write(String fundCode, List<DateChunk> covered, List<PriceRowDto> rows) {
+        synchronized (writeLocks[Math.floorMod(fundCode.hashCode(), writeLocks.length)]) {
+            Segment current = segment(fundCode);
+
+            // Aynı tarihte son gelen satır geçerlidir; sıralama kararlı olduğundan koşunun sonuncusu alınır
+            List<PriceRowDto> sorted = rows.stream()
+                    .filter(row -> row.getDate() != null)
+                    .sorted(Comparator.comparing(PriceRowDto::getDate))
+                    .toList();
+            List<PriceRowDto> incoming = new ArrayList<>(sorted.size());
+            String fundName = current.fundName;
+            for (PriceRowDto row : sorted) {
+                int last = incoming.size() - 1;
+                if (last >= 0 && incoming.get(last).getDate().equals(row.getDate())) {
+                    incoming.set(last, row);
+                } else {
+                    incoming.add(row);
+                }
+            }
+            for (PriceRowDto row : rows) {
+                if (row.getDate() != null && row.getFundName() != null && !row.getFundName().isBlank()) {
+                    fundName = row.getFundName();
+                }
+            }
+
+            IntervalSet coverage = new IntervalSet();
+            current.covered.intervals().forEach(c -> coverage.add(c.start(), c.end()));
+            covered.forEach(c -> coverage.add(c.start(), c.end()));
+
+            try {
+                Segment updated = persist(fundCode, fundName, coverage, current, incoming);
+                synchronized (segments) {
+                    segments.put(fundCode, updated);
+                }
+                if (current.file != null) {
+                    deleteQuietly(current.file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not persist NAV store for " + fundCode, e);
+            }
+        }
+    }
+
+    /**
+     * Fonun güncel Segment'i. Diskte dosyası olmayan fonlar için boş Segment
+     * döner ve tutulmaz; bilinmeyen kodlar belleği büyütmez.
+     */
+    private Segment segment(String fundCode) {
+        synchronized (segments) {
+            Segment segment = segments.get(fundCode);
+            if (segment != null) {
+                return segment;
+            }
+        }
+        // Dosya okuma kilit dışında yapılır; yarışta önce yerleşen kazanır
+        Segment loaded = load(fundCode);
+        if (loaded == Segment.EMPTY) {
+            return loaded;
+        }
+        synchronized (segments) {
+            Segment existing = segments.putIfAbsent(fundCode, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    private String baseName(String fundCode) {
+        return fundCode.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9_-]", "_");
+    }
+
+    /** Fonun nesil numaralı dosyası; 0. nesil eski tek dosya adıdır ({@code KOD.nav}). */
+    private Path file(String fundCode, long generation) {
+        String base = baseName(fundCode);
+        return root.resolve(generation == 0 ? base + FILE_SUFFIX : base + "." + generation + FILE_SUFFIX);
+    }
+
+    /**
+     * Okunabilen en yüksek nesli map eder; diğer nesiller (yarım kalmış
+     * temizlikler, okunamayan dosyalar) silinir.
+     */
+    private Segment load(String fundCode) {
+        if (!Files.isDirectory(root)) {
+            return Segment.EMPTY;
+        }
+        String base = baseName(fundCode);
+        TreeMap<Long, Path> generations = new TreeMap<>(Comparator.reverseOrder());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root,
+                "{" + base + FILE_SUFFIX + "," + base + ".*" + FILE_SUFFIX + "}")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String middle = name.substring(base.length(), name.length() - FILE_SUFFIX.length());
+                if (middle.isEmpty()) {
+                    generations.put(0L, file);
+                } else if (middle.matches("\\.[0-9]{1,18}")) {
+                    generations.put(Long.parseLong(middle.substring(1)), file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not list NAV store files for {}: {}", fundCode, e.getMessage());
+            return Segment.EMPTY;
+        }
+
+        Segment loaded = Segment.EMPTY;
+        for (Map.Entry<Long, Path> entry : generations.entrySet()) {
+            Path file = entry.getValue();
+            if (loaded == Segment.EMPTY) {
+                try {
+                    loaded = Segment.of(map(file), file, entry.getKey());
+                    continue;
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Ignoring unreadable NAV store file {}: {}", file, e.getMessage());
+                }
+            }
+            deleteQuietly(file);
+        }
+        return loaded;
+    }
+
+    private Segment persist(String fundCode, String fundName, IntervalSet covered, Segment current,
+            List<PriceRowDto> incoming) throws IOException {
+        byte[] name = fundName == null ? new byte[0] : fundName.getBytes(StandardCharsets.UTF_8);
+        List<DateChunk> intervals = covered.intervals();
+        int[] plan = mergePlan(current, incoming);
+        int n = plan.length;
+
+        Files.createDirectories(root);
+        long generation = current.generation + 1;
+        Path file = file(fundCode, generation);
+        Path tmp = Files.createTempFile(root, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ColumnWriter out = new ColumnWriter(channel);
+                out.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(intervals.size()).putShort((short) name.length)
+                        .put(name);
+                for (DateChunk interval : intervals) {
+                    out.putInt((int) interval.start().toEpochDay()).putInt((int) interval.end().toEpochDay());
+                }
+                // plan[k] >= 0 mevcut segmentin satırı, < 0 ise incoming.get(~plan[k]); mevcut değerler ham kopyalanır
+                for (int k = 0; k < n; k++) {
+                    int i = plan[k];
+                    out.putInt(i >= 0 ? current.epochDay(i) : (int) incoming.get(~i).getDate().toEpochDay());
+                }
+                for (int k = 0; k < n; k++) {
+                    int i = plan[k];
+                    out.putLong(i >= 0 ? current.buffer.getLong(current.priceOffset + i * 8)
+                            : Double.doubleToRawLongBits(encode(incoming.get(~i).getPrice())));
+                }
+                for (int k = 0; k < n; k++) {
+                    int i = plan[k];
+                    Long shares = i >= 0 ? null : incoming.get(~i).getOutstandingShares();
+                    out.putLong(i >= 0 ? current.buffer.getLong(current.sharesOffset + i * 8)
+                            : shares == null ? Long.MIN_VALUE : shares);
+                }
+                for (int k = 0; k < n; k++) {
+                    int i = plan[k];
+                    out.putLong(i >= 0 ? current.buffer.getLong(current.totalValueOffset + i * 8)
+                            : Double.doubleToRawLongBits(encode(incoming.get(~i).getTotalValue())));
+                }
+                for (int k = 0; k < n; k++) {
+                    int i = plan[k];
+                    Integer holders = i >= 0 ? null : incoming.get(~i).getHolderCount();
+                    out.putInt(i >= 0 ? current.buffer.getInt(current.holderOffset + i * 4)
+                            : holders == null ? Integer.MIN_VALUE : holders);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            // Hedef yeni bir addır; map edilmiş mevcut dosyanın üzerine taşınmaz
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return Segment.of(map(file), file, generation);
+    }
+
+    /** Mevcut ve yeni satırların tarih sıralı birleşimi; aynı tarihte yeni satır kazanır. */
+    private static int[] mergePlan(Segment current, List<PriceRowDto> incoming) {
+        int[] plan = new int[current.rowCount + incoming.size()];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < current.rowCount || j < incoming.size()) {
+            if (j == incoming.size()) {
+                plan[n++] = i++;
+                continue;
+            }
+            int day = (int) incoming.get(j).getDate().toEpochDay();
+            if (i < current.rowCount && current.epochDay(i) < day) {
+                plan[n++] = i++;
+            } else {
+                if (i < current.rowCount && current.epochDay(i) == day) {
+                    i++;
+                }
+                plan[n++] = ~j++;
+            }
+        }
+        return n == plan.length ? plan : Arrays.copyOf(plan, n);
+    }
+
+    private static double encode(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Eski nesli siler. Windows'ta hâlâ map edilmiş dosya silinemez; bu
+     * durumda dosya bir sonraki açılışta {@link #load} tarafından temizlenir.
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete old NAV store file {} yet: {}", file, e.getMessage());
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /** Kolonları sabit boyutlu bir tampon üzerinden kanala yazar. */
+    private static final class ColumnWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+
+        ColumnWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        ColumnWriter putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            return this;
+        }
+
+        ColumnWriter putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            return this;
+        }
+
+        ColumnWriter putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+            return this;
+        }
+
+        ColumnWriter put(byte[] bytes) throws IOException {
+            for (int offset = 0; offset < bytes.length;) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            return this;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+
+    /** Map edilmiş bir fon dosyasının değişmez görünümü. */
+    private static final class Segment {
+        static final Segment EMPTY = new Segment(null, new IntervalSet(), ByteBuffer.allocate(0), 0, 0, null, 0);
+
+        final Path file;
+        final long generation;
+        final String fundName;
+        final IntervalSet covered;
+        final ByteBuffer buffer;
+        final int rowCount;
+        final int dayOffset;
+        final int priceOffset;
+        final int sharesOffset;
+        final int totalValueOffset;
+        final int holderOffset;
+
+        private Segment(String fundName, IntervalSet covered, ByteBuffer buffer, int rowCount, int dayOffset,
+                Path file, long generation) {
+            this.file = file;
+            this.generation = generation;
+            this.fundName = fundName;
+            this.covered = covered;
+            this.buffer = buffer;
+            this.rowCount = rowCount;
+            this.dayOffset = dayOffset;
+            this.priceOffset = dayOffset + rowCount * 4;
+            this.sharesOffset = priceOffset + rowCount * 8;
+            this.totalValueOffset = sharesOffset + rowCount * 8;
+            this.holderOffset = totalValueOffset + rowCount * 8;
+        }
+
+        static Segment of(ByteBuffer buffer, Path file, long generation) {
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("unknown NAV store format");
+            }
+            int rowCount = buffer.getInt(8);
+            int intervalCount = buffer.getInt(12);
+            int nameLength = buffer.getShort(16) & 0xFFFF;
+            byte[] name = new byte[nameLength];
+            buffer.get(HEADER_BYTES, name);
+
+            IntervalSet covered = new IntervalSet();
+            int offset = HEADER_BYTES + nameLength;
+            for (int i = 0; i < intervalCount; i++, offset += 8) {
+                covered.add(LocalDate.ofEpochDay(buffer.getInt(offset)), LocalDate.ofEpochDay(buffer.getInt(offset + 4)));
+            }
+            if (buffer.capacity() != offset + rowCount * ROW_BYTES) {
+                throw new IllegalStateException("truncated NAV store file");
+            }
+            return new Segment(nameLength == 0 ? null : new String(name, StandardCharsets.UTF_8), covered, buffer,
+                    rowCount, offset, file, generation);
+        }
+
+        int epochDay(int i) {
+            return buffer.getInt(dayOffset + i * 4);
+        }
+
+        /** epochDay'i day'den küçük olmayan ilk satırın indeksi. */
+        int lowerBound(int day) {
+            int lo = 0;
+            int hi = rowCount;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (epochDay(mid) < day) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        PriceRowDto row(String fundCode, int i) {
+            PriceRowDto row = new PriceRowDto();
+            row.setDate(LocalDate.ofEpochDay(epochDay(i)));
+            row.setFundCode(fundCode);
+            row.setFundName(fundName);
+            double price = buffer.getDouble(priceOffset + i * 8);
+            row.setPrice(Double.isNaN(price) ? null : price);
+            long shares = buffer.getLong(sharesOffset + i * 8);
+            row.setOutstandingShares(shares == Long.MIN_VALUE ? null : shares);
+            double totalValue = buffer.getDouble(totalValueOffset + i * 8);
+            row.setTotalValue(Double.isNaN(totalValue) ? null : totalValue);
+            int holders = buffer.getInt(holderOffset + i * 4);
+            row.setHolderCount(holders == Integer.MIN_VALUE ? null : holders);
+            return row;
+        }
+    }
+}
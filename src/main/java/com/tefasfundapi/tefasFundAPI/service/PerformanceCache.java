@@ -0,0 +1,155 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tarih penceresi (start, end) bazında tüm fonların performans getirileri.
+ * - Upstream her pencere için zaten tüm fonları döner; sonuç kolon bazlı bir
+ * {@link PerformanceTable} olarak saklanır ve aynı penceredeki her fon ek
+ * upstream çağrısı olmadan cevaplanır.
+ * - En fazla performance.maxWindows pencere tutulur; en uzun süre
+ * kullanılmayan atılır (LRU).
+ * - Bitişi bugün ya da sonrası olan pencereler bugünün NAV'ı değişebileceği
+ * için performance.openWindowTtlMs sonra yeniden çekilir; kapanmış
+ * pencereler süresizdir. Süresi dolan tablo yenisi gelene kadar
+ * {@link #getStale} ile upstream'e ulaşılamadığında dönülmek üzere saklanır.
+ */
+@Component
+public class PerformanceCache {
+
+    private final PlaywrightConfig config;
+    private final ZoneId zone;
+    private final LinkedHashMap<Window, PerformanceTable> tables;
+
+    private record Window(LocalDate start, LocalDate end) {
+    }
+
+    public PerformanceCache(PlaywrightConfig config) {
+        this.config = config;
+        this.zone = ZoneId.of(config.getTimezone());
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Window, PerformanceTable> eldest) {
+                return size() > Math.max(1, config.getPerformance().getMaxWindows());
+            }
+        };
+    }
+
+    /** Pencere önbellekte ve süresi dolmamışsa tablosunu döner, yoksa null. */
+    public PerformanceTable get(LocalDate start, LocalDate end) {
+        synchronized (tables) {
+            PerformanceTable table = tables.get(new Window(start, end));
+            if (table == null) {
+                return null;
+            }
+            if (!end.isBefore(LocalDate.now(zone))
+                    && System.currentTimeMillis() - table.loadedAt() >= config.getPerformance().getOpenWindowTtlMs()) {
+                // Süresi dolan tablo yenisi gelene kadar getStale için tutulur
+                return null;
+            }
+            return table;
+        }
+    }
+
+    /** Süresine bakmadan pencerenin son yüklenen tablosunu döner, yoksa null. */
+    public PerformanceTable getStale(LocalDate start, LocalDate end) {
+        synchronized (tables) {
+            return tables.get(new Window(start, end));
+        }
+    }
+
+    public void put(LocalDate start, LocalDate end, PerformanceTable table) {
+        synchronized (tables) {
+            tables.put(new Window(start, end), table);
+        }
+    }
+
+    public int size() {
+        synchronized (tables) {
+            return tables.size();
+        }
+    }
+
+    /**
+     * Bir penceredeki tüm fonların getirileri, kolon dizileri halinde.
+     * Fon kodu -> satır indeksi haritası ile O(1) arama yapılır; getiri null
+     * ise NaN saklanır.
+     */
+    public static final class PerformanceTable {
+        private final Map<String, Integer> index;
+        private final String[] codes;
+        private final String[] names;
+        private final String[] umbrellaTypes;
+        private final double[] returns;
+        private final long loadedAt;
+
+        private PerformanceTable(Map<String, Integer> index, String[] codes, String[] names,
+                String[] umbrellaTypes, double[] returns, long loadedAt) {
+            this.index = index;
+            this.codes = codes;
+            this.names = names;
+            this.umbrellaTypes = umbrellaTypes;
+            this.returns = returns;
+            this.loadedAt = loadedAt;
+        }
+
+        public static PerformanceTable of(List<FundPerformanceDto> rows) {
+            int n = rows.size();
+            Map<String, Integer> index = new HashMap<>(n * 2);
+            String[] codes = new String[n];
+            String[] names = new String[n];
+            String[] umbrellaTypes = new String[n];
+            double[] returns = new double[n];
+            int count = 0;
+            for (FundPerformanceDto row : rows) {
+                if (row.getFundCode() == null || row.getFundCode().isBlank()) {
+                    continue;
+                }
+                String code = row.getFundCode().trim().toUpperCase(Locale.ROOT);
+                if (index.putIfAbsent(code, count) != null) {
+                    continue;
+                }
+                codes[count] = row.getFundCode();
+                names[count] = row.getFundName();
+                umbrellaTypes[count] = row.getUmbrellaType();
+                returns[count] = row.getGetiri() == null ? Double.NaN : row.getGetiri();
+                count++;
+            }
+            return new PerformanceTable(Map.copyOf(index), codes, names, umbrellaTypes, returns,
+                    System.currentTimeMillis());
+        }
+
+        public Optional<FundPerformanceDto> find(String code) {
+            Integer i = index.get(code.trim().toUpperCase(Locale.ROOT));
+            if (i == null) {
+                return Optional.empty();
+            }
+            FundPerformanceDto dto = new FundPerformanceDto();
+            dto.setFundCode(codes[i]);
+            dto.setFundName(names[i]);
+            dto.setUmbrellaType(umbrellaTypes[i]);
+            dto.setGetiri(Double.isNaN(returns[i]) ? null : returns[i]);
+            return Optional.of(dto);
+        }
+
+        public int size() {
+            return index.size();
+        }
+
+        long loadedAt() {
+            return loadedAt;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+/**
+ * Upstream işinin öncelik sınıfı.
+ * - INTERACTIVE: canlı API istekleri; kuyrukta BULK işlerin önüne geçer.
+ * - BULK: toplu geri doldurma / tarama işleri; boş kapasiteyi ağırlığı
+ * oranında paylaşır, interaktif işler için ayrılan yeri kullanamaz.
+ */
+public enum Priority {
+    INTERACTIVE,
+    BULK
+}
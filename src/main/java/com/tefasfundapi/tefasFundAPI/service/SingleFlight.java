@@ -0,0 +1,81 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Aynı anahtarla eş zamanlı gelen çağrıları tek bir yüklemede birleştirir.
+ * - İlk gelen çağrı yükleyiciyi çalıştırır, diğerleri onun sonucunu bekler.
+ * - Sonuç saklanmaz; yükleme bitince anahtar serbest kalır (cache değildir).
+ * - Yükleyicinin fırlattığı hata bekleyen tüm çağrılara aynen iletilir.
+ * - Deadline verilirse bekleyen çağrı en fazla kendi kalan bütçesi kadar
+ * bekler, sonra {@link TefasTimeoutException} alır; yükleme diğerleri için
+ * sürmeye devam eder.
+ */
+public final class SingleFlight<K, V> {
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, null, loader);
+    }
+
+    /** Bekleme süresi deadline ile sınırlı {@link #execute(Object, Supplier)}; null ise sınırsız. */
+    public V execute(K key, Deadline deadline, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            log.debug("Joining in-flight request for {}", key);
+            return await(key, existing, deadline);
+        }
+
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Şu an yüklemesi süren anahtar sayısı. */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V await(K key, CompletableFuture<V> future, Deadline deadline) {
+        try {
+            if (deadline == null) {
+                return future.join();
+            }
+            // Paylaşılan future'a dokunulmaz; zaman aşımı yalnızca bu bekleyenin kopyasına uygulanır
+            return future.copy().orTimeout(Math.max(1, deadline.remainingMs()), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw new TefasTimeoutException("singleFlight " + key, deadline.budgetMs(), cause);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
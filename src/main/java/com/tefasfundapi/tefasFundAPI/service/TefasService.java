@@ -8,14 +8,84 @@ import java.time.LocalDate;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Her çağrı öncelik sınıfını ({@link Priority}) belirtir: canlı API istekleri
+ * INTERACTIVE, toplu geri doldurma/tarama işleri BULK. Sınıf belirtmeyen eski
+ * imzalar INTERACTIVE ile çalışır.
+ */
 public interface TefasService {
-    Optional<FundDto> getFund(String code, List<String> fields);
+    Optional<FundDto> getFund(String code, List<String> fields, Priority priority);
 
-    Optional<PagedResponse<PriceRowDto>> getFundNav(String code, LocalDate start, LocalDate end, Pageable pageable);
+    default Optional<FundDto> getFund(String code, List<String> fields) {
+        return getFund(code, fields, Priority.INTERACTIVE);
+    }
 
-    Optional<PagedResponse<FundPerformanceDto>> getFundPerformance(String code,
+    Optional<PagedResponse<PriceRowDto>> getFundNav(String code, LocalDate start, LocalDate end, Pageable pageable,
+            Priority priority);
+
+    default Optional<PagedResponse<PriceRowDto>> getFundNav(String code, LocalDate start, LocalDate end,
+            Pageable pageable) {
+        return getFundNav(code, start, end, pageable, Priority.INTERACTIVE);
+    }
+
+    /**
+     * Birden fazla fonun NAV geçmişini tek upstream çağrısıyla getirir.
+     * Sonuç istenen her fon kodu (büyük harf) için bir liste içerir; verisi
+     * olmayan fonlar boş liste ile döner.
+     */
+    Map<String, List<PriceRowDto>> getFundNavBatch(Set<String> codes, LocalDate start, LocalDate end,
+            Priority priority);
+
+    default Map<String, List<PriceRowDto>> getFundNavBatch(Set<String> codes, LocalDate start, LocalDate end) {
+        return getFundNavBatch(codes, start, end, Priority.INTERACTIVE);
+    }
+
+    Optional<PagedResponse<FundPerformanceDto>> getFundPerformance(String code, LocalDate start, LocalDate end,
+            Pageable pageable, Priority priority);
+
+    default Optional<PagedResponse<FundPerformanceDto>> getFundPerformance(String code,
             LocalDate start, LocalDate end,
-            Pageable pageable);
-}
\ No newline at end of file
+            Pageable pageable) {
+        return getFundPerformance(code, start, end, pageable, Priority.INTERACTIVE);
+    }
+
+    /*
+     * Asenkron karşılıklar: çağrı sınıfın sınırlı upstream executor'ında çalışır,
+     * çağıran (servlet) thread'i beklemez. Hatalar future üzerinden döner.
+     */
+
+    CompletableFuture<Optional<FundDto>> getFundAsync(String code, List<String> fields, Priority priority);
+
+    default CompletableFuture<Optional<FundDto>> getFundAsync(String code, List<String> fields) {
+        return getFundAsync(code, fields, Priority.INTERACTIVE);
+    }
+
+    CompletableFuture<Optional<PagedResponse<PriceRowDto>>> getFundNavAsync(String code, LocalDate start,
+            LocalDate end, Pageable pageable, Priority priority);
+
+    default CompletableFuture<Optional<PagedResponse<PriceRowDto>>> getFundNavAsync(String code, LocalDate start,
+            LocalDate end, Pageable pageable) {
+        return getFundNavAsync(code, start, end, pageable, Priority.INTERACTIVE);
+    }
+
+    CompletableFuture<Map<String, List<PriceRowDto>>> getFundNavBatchAsync(Set<String> codes, LocalDate start,
+            LocalDate end, Priority priority);
+
+    default CompletableFuture<Map<String, List<PriceRowDto>>> getFundNavBatchAsync(Set<String> codes,
+            LocalDate start, LocalDate end) {
+        return getFundNavBatchAsync(codes, start, end, Priority.INTERACTIVE);
+    }
+
+    CompletableFuture<Optional<PagedResponse<FundPerformanceDto>>> getFundPerformanceAsync(String code,
+            LocalDate start, LocalDate end, Pageable pageable, Priority priority);
+
+    default CompletableFuture<Optional<PagedResponse<FundPerformanceDto>>> getFundPerformanceAsync(String code,
+            LocalDate start, LocalDate end, Pageable pageable) {
+        return getFundPerformanceAsync(code, start, end, pageable, Priority.INTERACTIVE);
+    }
+}
@@ -1,6 +1,8 @@
 package com.tefasfundapi.tefasFundAPI.service;
 
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
 import com.tefasfundapi.tefasFundAPI.client.FundsClient;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
 import com.tefasfundapi.tefasFundAPI.dto.FundDto;
 import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
 import com.tefasfundapi.tefasFundAPI.dto.FundReturnQuery;
@@ -8,7 +10,15 @@ import com.tefasfundapi.tefasFundAPI.dto.PagedResponse;
 import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
 import com.tefasfundapi.tefasFundAPI.parser.FundsParser;
 import com.tefasfundapi.tefasFundAPI.client.HistoryClient;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamCircuitBreaker;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamEndpoint;
+import com.tefasfundapi.tefasFundAPI.exception.InvalidDateRangeException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasCircuitOpenException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
 import com.tefasfundapi.tefasFundAPI.parser.HistoryParser;
+import com.tefasfundapi.tefasFundAPI.parser.RowFilter;
+
+import jakarta.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,14 +27,53 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Controller -> Service -> Client -> Parser -> DTO akışını koordine eder.
  * - Upstream çağrıları client'lara delegedir.
  * - JSON/HTML'den DTO'ya dönüşüm parser'larda yapılır.
  * - Servis katmanı; sıralama, sayfalama ve "fields" filtrelemesini üstlenir.
+ * - Her istek için giriş noktasında (*Async metotlarda executor'a
+ * gönderilmeden önce) tek bir {@link Deadline} oluşturulur ve client'lara
+ * geçirilir; executor kuyruğunda ve SingleFlight'ta beklenen süre de
+ * bütçeden düşer, istek en fazla request-budget-ms sürer. Kuyrukta bütçesi
+ * biten iş upstream'e gitmeden düşer.
+ * - Aynı sorgu için eş zamanlı istekler {@link SingleFlight} ile tek bir
+ * upstream çağrısı ve tek parse işleminde birleştirilir.
+ * - Uzun NAV aralıkları {@link DateChunk} parçalarına bölünüp sınırlı
+ * paralellikle çekilir, tarih sırasıyla birleştirilir. Parça kuyruğu
+ * sınırlıdır (doluysa 503); bütçeye sığmayan aralıklar çekilmeden reddedilir.
+ * - NAV satırları {@link NavCache}'te fon bazında tutulur; upstream'e yalnızca
+ * önbellekte kapsanmayan tarih aralıkları sorulur.
+ * - getFund, {@link FundUniverse} anlık görüntüsünden harita aramasıyla cevaplanır.
+ * - Performans sorgusunun tüm fonları {@link PerformanceCache}'te pencere
+ * bazında tutulur; aynı penceredeki diğer fonlar upstream'e gitmez.
+ * - *Async metotlar aynı işi {@link UpstreamExecutor}'da çalıştırır.
+ * - Tüm upstream çağrıları {@link AdmissionControl} kuyruğundan geçer; yük
+ * fazlaysa browser açılmadan 503 ile reddedilir. Çağrının {@link Priority}
+ * sınıfı executor'a ve kabul kuyruğuna kadar taşınır; SingleFlight ile
+ * birleşen isteklerde ilk gelenin sınıfı geçerlidir.
+ * - Endpoint'in devre kesicisi ({@link UpstreamCircuitBreaker}) açıksa çağrı
+ * kuyruğa girmeden reddedilir. NAV ve performans sorguları bu durumda
+ * önbellekteki son veriyi meta.stale=true ile döner; önbellekte veri yoksa
+ * 503 hemen döner.
  */
 @Service
 public class TefasServiceImpl implements TefasService {
@@ -35,68 +84,173 @@ public class TefasServiceImpl implements TefasService {
     private final FundsParser fundsParser;
     private final HistoryClient historyClient;
     private final HistoryParser historyParser;
+    private final PlaywrightConfig config;
+    private final NavCache navCache;
+    private final FundUniverse fundUniverse;
+    private final PerformanceCache performanceCache;
+    private final UpstreamExecutor upstreamExecutor;
+    private final AdmissionControl admissionControl;
+    private final UpstreamCircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor chunkExecutor;
+    private final int chunkParallelism;
+
+    private final SingleFlight<FlightKey, List<FundDto>> fundFlights = new SingleFlight<>();
+    private final SingleFlight<FlightKey, HistoryRows> navFlights = new SingleFlight<>();
+    private final SingleFlight<FlightKey, PerformanceCache.PerformanceTable> performanceFlights = new SingleFlight<>();
 
     private record PaginationInfo(int startIndex, int endIndex, int totalElements, int totalPages) {
     }
 
+    /** Normalize edilmiş upstream sorgusu: endpoint + büyük harf fon kodu + tarih aralığı. */
+    private record FlightKey(String endpoint, String fundCode, LocalDate start, LocalDate end) {
+    }
+
+    /** NAV satırları; stale ise eksik aralıklar devre açık olduğu için çekilemedi. */
+    private record HistoryRows(List<PriceRowDto> rows, boolean stale) {
+    }
+
     public TefasServiceImpl(FundsClient fundsClient, FundsParser fundsParser, HistoryClient historyClient,
-            HistoryParser historyParser) {
+            HistoryParser historyParser, PlaywrightConfig config, NavCache navCache,
+            FundUniverse fundUniverse, PerformanceCache performanceCache, UpstreamExecutor upstreamExecutor,
+            AdmissionControl admissionControl, UpstreamCircuitBreaker circuitBreaker) {
         this.fundsClient = fundsClient;
         this.fundsParser = fundsParser;
         this.historyClient = historyClient;
         this.historyParser = historyParser;
+        this.config = config;
+        this.navCache = navCache;
+        this.fundUniverse = fundUniverse;
+        this.performanceCache = performanceCache;
+        this.upstreamExecutor = upstreamExecutor;
+        this.admissionControl = admissionControl;
+        this.circuitBreaker = circuitBreaker;
+        // Kabul kuyruğu aynı anda en fazla pool.maxSize çağrı çalıştırır; fazlası thread'de bekler
+        this.chunkParallelism = Math.max(1, Math.min(config.getHistory().getMaxParallelChunks(),
+                config.getPool().getMaxSize()));
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.chunkExecutor = new ThreadPoolExecutor(chunkParallelism, chunkParallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getHistory().getChunkQueueCapacity())),
+                r -> {
+                    Thread thread = new Thread(r, "tefas-history-chunk-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    /* ----------------------------- ASYNC ------------------------------ */
+
+    @Override
+    public CompletableFuture<Optional<FundDto>> getFundAsync(String code, List<String> fields,
+            Priority priority) {
+        Deadline deadline = newDeadline();
+        return submit(priority, deadline, "getFund", () -> getFund(code, fields, priority, deadline));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PagedResponse<PriceRowDto>>> getFundNavAsync(String code, LocalDate start,
+            LocalDate end, Pageable pageable, Priority priority) {
+        Deadline deadline = newDeadline();
+        return submit(priority, deadline, "getFundNav",
+                () -> getFundNav(code, start, end, pageable, priority, deadline));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<PriceRowDto>>> getFundNavBatchAsync(Set<String> codes,
+            LocalDate start, LocalDate end, Priority priority) {
+        Deadline deadline = newDeadline();
+        return submit(priority, deadline, "getFundNavBatch",
+                () -> getFundNavBatch(codes, start, end, priority, deadline));
+    }
+
+    @Override
+    public CompletableFuture<Optional<PagedResponse<FundPerformanceDto>>> getFundPerformanceAsync(String code,
+            LocalDate start, LocalDate end, Pageable pageable, Priority priority) {
+        Deadline deadline = newDeadline();
+        return submit(priority, deadline, "getFundPerformance",
+                () -> getFundPerformance(code, start, end, pageable, priority, deadline));
+    }
+
+    /** İşi executor'a verir; kuyrukta beklerken bütçesi biten iş çalışmadan zaman aşımına düşer. */
+    private <T> CompletableFuture<T> submit(Priority priority, Deadline deadline, String operation,
+            Supplier<T> task) {
+        return upstreamExecutor.submit(priority, () -> {
+            deadline.check(operation + " (queued)");
+            return task.get();
+        });
     }
 
     /* ----------------------------- FUNDS ------------------------------ */
 
     @Override
-    public Optional<FundDto> getFund(String code, List<String> fields) {
+    public Optional<FundDto> getFund(String code, List<String> fields, Priority priority) {
+        return getFund(code, fields, priority, newDeadline());
+    }
+
+    private Optional<FundDto> getFund(String code, List<String> fields, Priority priority, Deadline deadline) {
         log.info("getFund called with code={} and fields={}", code, fields);
         if (code == null || code.isBlank())
             return Optional.empty();
 
-        FundReturnQuery query = new FundReturnQuery();
-        query.setFonturkod(code.trim());
-        query.setCalismatipi("");
-        query.setFontip("");
-        query.setBastarih("");
-        query.setBittarih("");
-        query.setStrperiod("");
-        query.setIslemdurum("");
-
-        String raw = fundsClient.fetchComparisonFundReturns(query);
-        List<FundDto> list = fundsParser.toFunds(raw);
-
-        List<FundDto> filtered = filterByFundCode(list, code);
+        if (config.getUniverse().isEnabled()) {
+            return fundUniverse.find(code, priority, deadline);
+        }
 
-        return filtered.stream().findFirst();
+        String fundCode = normalizeCode(code);
+        List<FundDto> list = fundFlights.execute(new FlightKey("comparison", fundCode, null, null), deadline, () -> {
+            FundReturnQuery query = new FundReturnQuery();
+            query.setFonturkod(fundCode);
+            query.setCalismatipi("1");
+            query.setFontip("YAT");
+            query.setBastarih("");
+            query.setBittarih("");
+            query.setStrperiod("1,1,1,1,1,1,1");
+            query.setIslemdurum("1");
+
+            byte[] raw = callUpstream(UpstreamEndpoint.COMPARISON, priority, "fetchComparisonFundReturns", deadline,
+                    () -> fundsClient.fetchComparisonFundReturns(query, deadline));
+            return fundsParser.toFunds(raw, RowFilter.fundCodes(Set.of(fundCode)));
+        });
+
+        return list.stream().findFirst();
     }
 
     @Override
     public Optional<PagedResponse<PriceRowDto>> getFundNav(String code, LocalDate start, LocalDate end,
-            Pageable pageable) {
+            Pageable pageable, Priority priority) {
+        return getFundNav(code, start, end, pageable, priority, newDeadline());
+    }
+
+    private Optional<PagedResponse<PriceRowDto>> getFundNav(String code, LocalDate start, LocalDate end,
+            Pageable pageable, Priority priority, Deadline deadline) {
         log.info("TefasServiceImpl: getFundNav called with code=" + code + " and start=" + start + " and end="
                 + end + " and pageable=" + pageable);
         if (code == null || code.isBlank())
             return Optional.empty();
 
-        String raw = historyClient.fetchHistoryJson(code.trim(), start, end);
-        List<PriceRowDto> list = historyParser.toPriceRows(raw);
-        List<PriceRowDto> filteredList = filterByFundCode(list, code);
+        String fundCode = normalizeCode(code);
+        HistoryRows history = navFlights.execute(new FlightKey("history", fundCode, start, end), deadline,
+                () -> loadHistoryRows(Set.of(fundCode), start, end, priority, deadline));
+        List<PriceRowDto> list = history.rows();
 
-        if (filteredList.isEmpty()) {
-            log.info("FundCode is not in filtered list");
+        if (list.isEmpty()) {
+            log.info("No NAV rows for fundCode={}", fundCode);
             return Optional.empty();
         }
 
-        PaginationInfo pagination = calculatePaginationInfo(pageable, filteredList);
+        PaginationInfo pagination = calculatePaginationInfo(pageable, list);
 
         List<PriceRowDto> pagedList;
 
         if (pagination.startIndex() >= pagination.totalElements) {
             pagedList = List.of();
         } else {
-            pagedList = filteredList.subList(pagination.startIndex(), pagination.endIndex());
+            pagedList = list.subList(pagination.startIndex(), pagination.endIndex());
         }
 
         PagedResponse.Meta meta = new PagedResponse.Meta(
@@ -104,21 +258,94 @@ public class TefasServiceImpl implements TefasService {
                 pageable.getPageSize(),
                 pagination.totalElements(),
                 pagination.totalPages());
+        if (history.stale()) {
+            meta.setStale(true);
+        }
 
         return Optional.of(new PagedResponse<>(pagedList, meta));
     }
 
+    @Override
+    public Map<String, List<PriceRowDto>> getFundNavBatch(Set<String> codes, LocalDate start, LocalDate end,
+            Priority priority) {
+        return getFundNavBatch(codes, start, end, priority, newDeadline());
+    }
+
+    private Map<String, List<PriceRowDto>> getFundNavBatch(Set<String> codes, LocalDate start, LocalDate end,
+            Priority priority, Deadline deadline) {
+        log.info("getFundNavBatch called with {} codes, start={}, end={}", codes == null ? 0 : codes.size(), start,
+                end);
+        Map<String, List<PriceRowDto>> byFund = new LinkedHashMap<>();
+        if (codes == null) {
+            return byFund;
+        }
+        codes.stream()
+                .filter(c -> c != null && !c.isBlank())
+                .map(TefasServiceImpl::normalizeCode)
+                .forEach(c -> byFund.put(c, new ArrayList<>()));
+        if (byFund.isEmpty()) {
+            return byFund;
+        }
+        int maxCodes = Math.max(1, config.getHistory().getMaxBatchCodes());
+        if (byFund.size() > maxCodes) {
+            throw new InvalidDateRangeException("At most " + maxCodes + " fund codes can be requested at once, got "
+                    + byFund.size());
+        }
+
+        // Sonuç yalnızca istenen fonları içerdiğinden anahtar sıralı fon listesidir;
+        // tek fon için getFundNav ile aynı anahtar oluşur
+        Set<String> fundCodes = byFund.keySet();
+        String keyCode = String.join(",", new TreeSet<>(fundCodes));
+        List<PriceRowDto> rows = navFlights.execute(new FlightKey("history", keyCode, start, end), deadline,
+                () -> loadHistoryRows(fundCodes, start, end, priority, deadline)).rows();
+
+        for (PriceRowDto row : rows) {
+            if (row.getFundCode() != null) {
+                List<PriceRowDto> fundRows = byFund.get(normalizeCode(row.getFundCode()));
+                if (fundRows != null) {
+                    fundRows.add(row);
+                }
+            }
+        }
+        return byFund;
+    }
+
     @Override
     public Optional<PagedResponse<FundPerformanceDto>> getFundPerformance(String code, LocalDate start, LocalDate end,
-            Pageable pageable) {
+            Pageable pageable, Priority priority) {
+        return getFundPerformance(code, start, end, pageable, priority, newDeadline());
+    }
+
+    private Optional<PagedResponse<FundPerformanceDto>> getFundPerformance(String code, LocalDate start,
+            LocalDate end, Pageable pageable, Priority priority, Deadline deadline) {
         log.debug("TefasServiceImpl: getFundPerformance called with code=" + code + "and start=" + start + " and end="
                 + end + " and pageable=" + pageable);
         if (code == null || code.isBlank())
             return Optional.empty();
 
-        String raw = fundsClient.fetchFundPerformance(start, end);
-        List<FundPerformanceDto> list = fundsParser.toPerformanceDtos(raw);
-        List<FundPerformanceDto> filteredList = filterByFundCode(list, code);
+        // Performans sorgusu tüm fonları döner; fon kodu anahtara girmez
+        PerformanceCache.PerformanceTable table = performanceCache.get(start, end);
+        boolean stale = false;
+        if (table == null) {
+            try {
+                table = performanceFlights.execute(new FlightKey("performance", null, start, end), deadline, () -> {
+                    byte[] raw = callUpstream(UpstreamEndpoint.PERFORMANCE, priority, "fetchFundPerformance",
+                            deadline, () -> fundsClient.fetchFundPerformance(start, end, deadline));
+                    PerformanceCache.PerformanceTable loaded = PerformanceCache.PerformanceTable.of(
+                            fundsParser.toPerformanceDtos(raw));
+                    performanceCache.put(start, end, loaded);
+                    return loaded;
+                });
+            } catch (TefasCircuitOpenException e) {
+                table = performanceCache.getStale(start, end);
+                if (table == null) {
+                    throw e;
+                }
+                log.warn("Serving stale performance table for {}..{}: {}", start, end, e.getMessage());
+                stale = true;
+            }
+        }
+        List<FundPerformanceDto> filteredList = table.find(code).map(List::of).orElse(List.of());
 
         if (filteredList.isEmpty()) {
             return Optional.empty();
@@ -139,10 +366,197 @@ public class TefasServiceImpl implements TefasService {
                 pageable.getPageSize(),
                 pagination.totalElements(),
                 pagination.totalPages());
+        if (stale) {
+            meta.setStale(true);
+        }
 
         return Optional.of(new PagedResponse<>(pagedList, meta));
     }
 
+    /**
+     * Fonların [start, end] NAV satırlarını önbellekten döner. Fonlardan
+     * herhangi birinde eksik olan aralıkların birleşimi tek seferde çekilir
+     * ve her fonun önbelleğine yazılır. Sonuç fon sırasıyla, her fon içinde
+     * tarih sırasıyladır. History devresi açıksa önbellekte olan satırlar
+     * stale olarak döner; hiç satır yoksa hata fırlatılır.
+     */
+    private HistoryRows loadHistoryRows(Set<String> fundCodes, LocalDate start, LocalDate end,
+            Priority priority, Deadline deadline) {
+        if (!config.getHistory().isCacheEnabled()) {
+            return new HistoryRows(
+                    fetchHistoryRows(fundCodes, List.of(new DateChunk(start, end)), priority, deadline), false);
+        }
+
+        IntervalSet gaps = new IntervalSet();
+        for (String fundCode : fundCodes) {
+            navCache.missing(fundCode, start, end).forEach(gap -> gaps.add(gap.start(), gap.end()));
+        }
+        List<DateChunk> ranges = gaps.intervals();
+        TefasCircuitOpenException unavailable = null;
+        if (!ranges.isEmpty()) {
+            log.debug("NAV cache miss for {} {}..{}, fetching {}", fundCodes, start, end, ranges);
+            try {
+                fillNavCache(fundCodes, ranges, priority, deadline);
+            } catch (TefasCircuitOpenException e) {
+                unavailable = e;
+            }
+        }
+
+        List<PriceRowDto> rows = new ArrayList<>();
+        for (String fundCode : fundCodes) {
+            rows.addAll(navCache.get(fundCode, start, end));
+        }
+        if (unavailable != null) {
+            if (rows.isEmpty()) {
+                throw unavailable;
+            }
+            log.warn("Serving stale NAV for {} {}..{} without {}: {}", fundCodes, start, end, ranges,
+                    unavailable.getMessage());
+        }
+        return new HistoryRows(rows, unavailable != null);
+    }
+
+    /**
+     * Eksik aralıkları çeker ve fon bazında tek seferde önbelleğe yazar.
+     * Upstream'in satır döndürmediği fonlar yalnızca fon evreninde varsa
+     * (aralık tatile denk gelmiş olabilir) kapsanmış sayılır; bilinmeyen
+     * kodlar için dosya açılmaz.
+     */
+    private void fillNavCache(Set<String> fundCodes, List<DateChunk> ranges, Priority priority,
+            Deadline deadline) {
+        Map<String, List<PriceRowDto>> fetched = new LinkedHashMap<>();
+        fundCodes.forEach(c -> fetched.put(c, new ArrayList<>()));
+        for (PriceRowDto row : fetchHistoryRows(fundCodes, ranges, priority, deadline)) {
+            if (row.getFundCode() != null) {
+                List<PriceRowDto> fundRows = fetched.get(normalizeCode(row.getFundCode()));
+                if (fundRows != null) {
+                    fundRows.add(row);
+                }
+            }
+        }
+        // Fon başına tek yazım: tüm aralıklar ve satırları birlikte birleştirilir
+        fetched.forEach((fundCode, rows) -> {
+            List<PriceRowDto> inRange = rows.stream()
+                    .filter(row -> ranges.stream().anyMatch(range -> isWithin(row.getDate(), range)))
+                    .toList();
+            if (inRange.isEmpty() && !fundUniverse.isKnown(fundCode)) {
+                log.debug("No NAV rows for unknown fund {} in {}, not caching", fundCode, ranges);
+                return;
+            }
+            navCache.put(fundCode, ranges, inRange);
+        });
+    }
+
+    /**
+     * NAV satırlarını çeker. Aralıklar history.chunkDays'ten uzunsa parçalara
+     * bölünür; parçalar aynı istek bütçesini paylaşır ve biri hata verirse
+     * diğerleri beklenmeden hata fırlatılır. Parçalar bütçeye sığmıyorsa
+     * {@link InvalidDateRangeException}, parça kuyruğu doluysa
+     * {@link TefasOverloadedException} fırlatılır; ikisinde de upstream'e gidilmez.
+     */
+    private List<PriceRowDto> fetchHistoryRows(Set<String> fundCodes, List<DateChunk> ranges, Priority priority,
+            Deadline deadline) {
+        List<DateChunk> chunks = ranges.stream()
+                .flatMap(range -> DateChunk.split(range.start(), range.end(), config.getHistory().getChunkDays())
+                        .stream())
+                .toList();
+        // Birden fazla fon için upstream tüm fonları döner; istenmeyenler parse sırasında atlanır
+        RowFilter filter = RowFilter.fundCodes(fundCodes);
+        if (chunks.size() == 1) {
+            DateChunk chunk = chunks.get(0);
+            return historyParser.toPriceRows(fetchHistoryChunk(fundCodes, chunk, deadline, priority), filter);
+        }
+
+        checkFitsBudget(ranges, chunks.size(), deadline);
+        log.info("Fetching history {} in {} chunks", ranges, chunks.size());
+        List<CompletableFuture<List<PriceRowDto>>> futures = new ArrayList<>(chunks.size());
+        try {
+            for (DateChunk chunk : chunks) {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> historyParser.toPriceRows(fetchHistoryChunk(fundCodes, chunk, deadline, priority), filter),
+                        chunkExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            // Kuyruğa girmiş parçalar çalışmadan atlanır
+            futures.forEach(f -> f.cancel(false));
+            log.warn("History chunk queue full: {} active, {} queued; rejecting {} chunks",
+                    chunkExecutor.getActiveCount(), chunkExecutor.getQueue().size(), chunks.size());
+            throw new TefasOverloadedException("History chunk queue full",
+                    config.getAdmission().getRetryAfterSeconds(), e);
+        }
+
+        CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+        futures.forEach(f -> f.whenComplete((rows, error) -> {
+            if (error != null) {
+                firstFailure.completeExceptionally(error);
+            }
+        }));
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])),
+                    firstFailure).join();
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return mergeChunks(futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Parçalar chunkParallelism'lik dalgalar halinde çalışır; dalga başına
+     * history.expectedChunkMs ile tahmin edilen süre kalan bütçeyi aşıyorsa
+     * aralık upstream'e gidilmeden reddedilir.
+     */
+    private void checkFitsBudget(List<DateChunk> ranges, int chunkCount, Deadline deadline) {
+        long waves = (chunkCount + chunkParallelism - 1) / chunkParallelism;
+        long estimateMs = waves * config.getHistory().getExpectedChunkMs();
+        if (estimateMs > deadline.remainingMs()) {
+            throw new InvalidDateRangeException("Date range " + ranges + " needs " + chunkCount
+                    + " upstream chunks (~" + estimateMs + " ms) and does not fit the request budget of "
+                    + deadline.budgetMs() + " ms; split it into shorter ranges");
+        }
+    }
+
+    private byte[] fetchHistoryChunk(Set<String> fundCodes, DateChunk chunk, Deadline deadline, Priority priority) {
+        return callUpstream(UpstreamEndpoint.HISTORY, priority, "fetchHistoryJson", deadline,
+                () -> historyClient.fetchHistoryJsonBatch(fundCodes, chunk.start(), chunk.end(), deadline));
+    }
+
+    /** Devre açıksa kuyruğa girmeden reddeder; değilse çağrıyı kabul kuyruğundan geçirir. */
+    private <T> T callUpstream(UpstreamEndpoint endpoint, Priority priority, String operation, Deadline deadline,
+            Supplier<T> work) {
+        circuitBreaker.checkAvailable(endpoint, operation);
+        return admissionControl.call(priority, operation, deadline, work);
+    }
+
+    /** Parçaları tarih sırasıyla birleştirir; sınırlarda tekrar eden (fon, tarih) satırlarını atar. */
+    private static List<PriceRowDto> mergeChunks(List<List<PriceRowDto>> chunks) {
+        Map<String, PriceRowDto> unique = new LinkedHashMap<>();
+        for (List<PriceRowDto> chunk : chunks) {
+            for (PriceRowDto row : chunk) {
+                String fundCode = row.getFundCode() == null ? "" : normalizeCode(row.getFundCode());
+                unique.putIfAbsent(fundCode + '|' + row.getDate(), row);
+            }
+        }
+        return unique.values().stream()
+                .sorted(Comparator.comparing(PriceRowDto::getDate, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static boolean isWithin(LocalDate date, DateChunk range) {
+        return date != null && !date.isBefore(range.start()) && !date.isAfter(range.end());
+    }
+
+    private static String normalizeCode(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Deadline newDeadline() {
+        return Deadline.after(config.getRequestBudgetMs());
+    }
+
     private <T> PaginationInfo calculatePaginationInfo(Pageable pageable, List<T> list) {
         int page = pageable.getPageNumber();
         int size = pageable.getPageSize();
@@ -154,23 +568,4 @@ public class TefasServiceImpl implements TefasService {
 
         return new PaginationInfo(startIndex, endIndex, totalElements, totalPages);
     }
-
-    private <T> List<T> filterByFundCode(List<T> list, String code) {
-        if (code == null || code.isBlank() || list == null || list.isEmpty()) {
-            return List.of();
-        }
-        String trimmedCode = code.trim();
-        return list.stream()
-                .filter(item -> {
-                    if (item instanceof FundDto dto) {
-                        return dto.getFundCode() != null && dto.getFundCode().equalsIgnoreCase(trimmedCode);
-                    } else if (item instanceof FundPerformanceDto dto) {
-                        return dto.getFundCode() != null && dto.getFundCode().equalsIgnoreCase(trimmedCode);
-                    } else if (item instanceof PriceRowDto dto) {
-                        return dto.getFundCode() != null && dto.getFundCode().equalsIgnoreCase(trimmedCode);
-                    }
-                    return false;
-                })
-                .toList();
-    }
 }
@@ -0,0 +1,122 @@
+package com.tefasfundapi.tefasFundAPI.service;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Browser'a bağlı servis çağrılarını çalıştıran sınırlı executor.
+ * - Thread sayısı browser pool'una bağlıdır (pool.maxSize * threadsPerBrowser);
+ * daha fazla thread yalnızca browser kiralamak için bekler.
+ * - Kuyruk sınırlıdır; dolduğunda istek beklemeden reddedilir.
+ * Böylece yavaş upstream çağrıları Tomcat thread'lerini tutmaz, actuator gibi
+ * ucuz endpoint'ler cevap vermeye devam eder.
+ * - Virtual thread modunda her istek kendi virtual thread'inde çalışır;
+ * eşzamanlı istek sayısı aynı sınırla (threads + queueCapacity) tutulur.
+ * Browser işi yine de her Browser'ın kendi platform thread'ine
+ * ({@link com.tefasfundapi.tefasFundAPI.client.BrowserThread}) devredilir.
+ * - Her öncelik sınıfının ({@link Priority}) ayrı executor'ı vardır; BULK işler
+ * (pool.maxSize thread) kabul kuyruğunda beklerken INTERACTIVE isteklerin
+ * thread'lerini ve kuyruğunu tutmaz.
+ */
+@Component
+public class UpstreamExecutor {
+    private static final Logger log = LoggerFactory.getLogger(UpstreamExecutor.class);
+
+    private final Map<Priority, Executor> executors = new EnumMap<>(Priority.class);
+    private final int retryAfterSeconds;
+
+    public UpstreamExecutor(PlaywrightConfig config) {
+        int threads = Math.max(1, config.getPool().getMaxSize() * config.getAsync().getThreadsPerBrowser());
+        int queueCapacity = Math.max(1, config.getAsync().getQueueCapacity());
+        boolean virtualThreads = config.getAsync().isVirtualThreads();
+        this.retryAfterSeconds = config.getAdmission().getRetryAfterSeconds();
+        executors.put(Priority.INTERACTIVE, createExecutor("tefas-upstream-", threads, queueCapacity, virtualThreads));
+        executors.put(Priority.BULK, createExecutor("tefas-bulk-", Math.max(1, config.getPool().getMaxSize()),
+                queueCapacity, virtualThreads));
+    }
+
+    private static Executor createExecutor(String prefix, int threads, int queueCapacity, boolean virtualThreads) {
+        if (virtualThreads) {
+            return virtualThreadExecutor(prefix, threads + queueCapacity);
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, prefix + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Upstream executor {} started with {} threads, queue capacity {}", prefix, threads, queueCapacity);
+        return executor;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(String prefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        try {
+            executor.setVirtualThreads(true);
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalStateException(
+                    "tefas.playwright.async.virtual-threads requires Java 21 (build with -Pjava21)", e);
+        }
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setRejectTasksWhenLimitReached(true);
+        log.info("Upstream executor {} started on virtual threads, concurrency limit {}", prefix, concurrencyLimit);
+        return executor;
+    }
+
+    /** {@link Priority#INTERACTIVE} ile {@link #submit(Priority, Supplier)}. */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(Priority.INTERACTIVE, task);
+    }
+
+    /**
+     * task'ı sınıfın executor'ında çalıştırır. Kuyruk doluysa dönen future hemen
+     * {@link TefasOverloadedException} ile (503 + Retry-After) tamamlanır.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, Supplier<T> task) {
+        Executor executor = executors.get(priority);
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            if (executor instanceof ThreadPoolExecutor pool) {
+                log.warn("Upstream executor saturated for {}: {} active, {} queued", priority,
+                        pool.getActiveCount(), pool.getQueue().size());
+            } else {
+                log.warn("Upstream executor saturated for {}: virtual thread concurrency limit reached", priority);
+            }
+            return CompletableFuture.failedFuture(
+                    new TefasOverloadedException("Upstream executor saturated", retryAfterSeconds, e));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Executor executor : executors.values()) {
+            if (executor instanceof ThreadPoolExecutor pool) {
+                pool.shutdownNow();
+            } else if (executor instanceof SimpleAsyncTaskExecutor simple) {
+                simple.close();
+            }
+        }
+    }
+}
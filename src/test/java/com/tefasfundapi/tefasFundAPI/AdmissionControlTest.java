@@ -0,0 +1,146 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+import com.tefasfundapi.tefasFundAPI.service.AdmissionControl;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTest {
+
+    // Ortak havuz tek çekirdekte tek thread'le çalışabilir; bekleyen çağrılar kilitlenmesin
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Test
+    void testRejectsWhenQueueFullOrWaitExceeded() throws Exception {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getPool().setMaxSize(1);
+        config.getAdmission().setMaxQueue(1);
+        config.getAdmission().setMaxQueueWaitMs(2000);
+        config.getAdmission().setRetryAfterSeconds(7);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControl admission = new AdmissionControl(config, registry);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> admission.call("hold",
+                Deadline.after(5000), () -> {
+                    started.countDown();
+                    await(release);
+                    return "done";
+                }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, admission.inFlight());
+
+        // Kuyrukta yer var: istek bütçesi kadar (maxQueueWaitMs'den kısa) bekler, sonra reddedilir
+        TefasOverloadedException timeout = assertThrows(TefasOverloadedException.class,
+                () -> admission.call("wait", Deadline.after(100), () -> "never"));
+        assertEquals(7, timeout.getRetryAfterSeconds());
+
+        // Kuyruk yeri dolu: hemen reddedilir
+        CompletableFuture<String> waiter = CompletableFuture.supplyAsync(
+                () -> admission.call("queued", Deadline.after(5000), () -> "queued"), executor);
+        while (admission.queueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+        long start = System.nanoTime();
+        assertThrows(TefasOverloadedException.class,
+                () -> admission.call("full", Deadline.after(5000), () -> "never"));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+
+        release.countDown();
+        assertEquals("done", holder.get(5, TimeUnit.SECONDS));
+        assertEquals(2.0, registry.get("tefas.admission.rejected").counters().stream()
+                .mapToDouble(c -> c.count()).sum());
+        assertEquals("queued", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    void testInteractiveOvertakesBulkWithWeightedShare() throws Exception {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getPool().setMaxSize(1);
+        AdmissionControl admission = new AdmissionControl(config, new SimpleMeterRegistry());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> admission.call(Priority.INTERACTIVE,
+                "hold", Deadline.after(5000), () -> {
+                    await(release);
+                    return "done";
+                }), executor);
+        while (admission.inFlight() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // Önce 3 BULK, sonra 5 INTERACTIVE kuyruğa girer
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Priority priority = i < 3 ? Priority.BULK : Priority.INTERACTIVE;
+            String name = (i < 3 ? "B" : "I") + i;
+            waiters.add(CompletableFuture.runAsync(() -> admission.call(priority, name, Deadline.after(5000),
+                    () -> order.add(name)), executor));
+            int queued = i + 1;
+            while (admission.queueDepth() < queued) {
+                Thread.onSpinWait();
+            }
+        }
+        assertEquals(3, admission.queueDepth(Priority.BULK));
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        // Ağırlık 4:1 - dört INTERACTIVE'den sonra bir BULK
+        assertEquals(List.of("I3", "I4", "I5", "I6", "B0", "I7", "B1", "B2"), order);
+    }
+
+    @Test
+    void testBulkCannotUseReservedSlot() throws Exception {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getPool().setMaxSize(2);
+        config.getAdmission().setMaxQueueWaitMs(50);
+        AdmissionControl admission = new AdmissionControl(config, new SimpleMeterRegistry());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> bulk = CompletableFuture.supplyAsync(() -> admission.call(Priority.BULK, "bulk",
+                Deadline.after(5000), () -> {
+                    await(release);
+                    return "done";
+                }), executor);
+        while (admission.inFlight() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(TefasOverloadedException.class,
+                () -> admission.call(Priority.BULK, "second", Deadline.after(5000), () -> "never"));
+        assertEquals("ok", admission.call(Priority.INTERACTIVE, "live", Deadline.after(5000), () -> "ok"));
+
+        release.countDown();
+        assertEquals("done", bulk.get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
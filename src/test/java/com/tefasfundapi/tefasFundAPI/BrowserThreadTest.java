@@ -0,0 +1,77 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.client.BrowserThread;
+import com.tefasfundapi.tefasFundAPI.exception.TefasClientException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BrowserThreadTest {
+
+    @Test
+    void testPinsAllWorkToOneThread() throws Exception {
+        BrowserThread browserThread = new BrowserThread("tefas-browser-test");
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            Thread owner = browserThread.call(Thread::currentThread);
+            assertEquals("tefas-browser-test", owner.getName());
+            assertNotSame(Thread.currentThread(), owner);
+
+            // Farklı çağıran thread'lerden gelen iş hep aynı thread'de çalışır
+            List<Future<Thread>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> browserThread.call(Thread::currentThread)));
+            }
+            for (Future<Thread> result : results) {
+                assertSame(owner, result.get(5, TimeUnit.SECONDS));
+            }
+
+            // İç içe çağrı yerinde çalışmalı (tek thread'de kilitlenmemeli)
+            assertSame(owner, browserThread.call(() -> browserThread.call(Thread::currentThread)));
+            assertTrue(browserThread.call(browserThread::isCurrent));
+            assertFalse(browserThread.isCurrent());
+
+            assertThrows(TefasParseException.class, () -> browserThread.call(() -> {
+                throw new TefasParseException("boom");
+            }));
+            // Hata thread'i değiştirmez
+            assertSame(owner, browserThread.call(Thread::currentThread));
+        } finally {
+            callers.shutdownNow();
+            browserThread.shutdown();
+        }
+    }
+
+    @Test
+    void testExecuteRunsAfterQueuedWorkAndRejectsAfterShutdown() throws Exception {
+        BrowserThread browserThread = new BrowserThread("tefas-browser-test");
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        browserThread.run(() -> order.add("work"));
+        assertTrue(browserThread.execute(() -> {
+            throw new IllegalStateException("logged, not fatal");
+        }));
+        assertTrue(browserThread.execute(() -> {
+            order.add("release");
+            done.countDown();
+        }));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("work", "release"), order);
+
+        browserThread.shutdown();
+        assertFalse(browserThread.execute(() -> order.add("late")));
+        assertThrows(TefasClientException.class, () -> browserThread.call(() -> "late"));
+    }
+}
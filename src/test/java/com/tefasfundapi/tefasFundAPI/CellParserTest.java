@@ -0,0 +1,93 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.parser.CellParser;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CellParser'ın eski String tabanlı ayrıştırıcıyla (replace + parseDouble)
+ * her girdide aynı sonucu verdiğini rastgele girdilerle doğrular.
+ */
+public class CellParserTest {
+
+    private static final String ALPHABET = "0123456789.,-+ \teEdN";
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void testKnownValues() {
+        assertEquals(1234.56, CellParser.parseNumber("1.234,56"));
+        assertEquals(-0.5, CellParser.parseNumber(" -,5 "));
+        assertEquals(33_292_621.25, CellParser.parseNumber("33.292.621,25"));
+        assertNull(CellParser.parseNumber("1,2,3"));
+        assertNull(CellParser.parseNumber("-"));
+        assertNull(CellParser.parseNumber(""));
+    }
+
+    @Test
+    void testRangesWithinLargerSequence() {
+        String row = "|02.01.2024|1.234,56|1.755|";
+        assertEquals(1234.56, CellParser.parseDecimal(row, 12, 20));
+        assertEquals(1755.0, CellParser.parseDecimal(row, 21, 26));
+        assertTrue(Double.isNaN(CellParser.parseDecimal(row, 0, 1)));
+    }
+
+    @Test
+    void testNumbersMatchLegacyParser() {
+        Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String s = randomCell(random);
+            assertEquals(legacyNumber(s), CellParser.parseNumber(s), () -> "parseNumber(\"" + s + "\")");
+        }
+    }
+
+    @Test
+    void testGroupedDecimalsMatchLegacyParser() {
+        Random random = new Random(7);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long integerPart = (long) (random.nextDouble() * Math.pow(10, random.nextInt(16)));
+            StringBuilder sb = new StringBuilder();
+            if (random.nextBoolean()) {
+                sb.append('-');
+            }
+            sb.append(String.format(Locale.ROOT, "%,d", integerPart).replace(',', '.'));
+            int fraction = random.nextInt(10);
+            if (fraction > 0) {
+                sb.append(',');
+                for (int d = 0; d < fraction; d++) {
+                    sb.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            String s = sb.toString();
+            assertEquals(legacyNumber(s), CellParser.parseNumber(s), () -> "parseNumber(\"" + s + "\")");
+        }
+    }
+
+    private static String randomCell(Random random) {
+        int length = random.nextInt(14);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(random.nextInt(4) == 0
+                    ? ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                    : (char) ('0' + random.nextInt(10)));
+        }
+        return sb.toString();
+    }
+
+    // Eski TableDataTransformer davranışı (referans)
+
+    private static Double legacyNumber(String numStr) {
+        if (numStr == null || numStr.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(numStr.trim().replace(".", "").replace(",", "."));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
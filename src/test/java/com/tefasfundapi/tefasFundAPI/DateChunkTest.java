@@ -0,0 +1,57 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.tefasfundapi.tefasFundAPI.service.DateChunk;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateChunkTest {
+
+    @Test
+    void testSplit_ShortRange_ReturnsSingleChunk() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+
+        List<DateChunk> chunks = DateChunk.split(start, end, 90);
+
+        assertEquals(List.of(new DateChunk(start, end)), chunks);
+    }
+
+    @Test
+    void testSplit_LongRange_ChunksAreContiguousAndCoverRange() {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        LocalDate end = LocalDate.of(2024, 12, 31);
+
+        List<DateChunk> chunks = DateChunk.split(start, end, 90);
+
+        assertEquals(start, chunks.get(0).start());
+        assertEquals(end, chunks.get(chunks.size() - 1).end());
+        for (int i = 0; i < chunks.size(); i++) {
+            DateChunk chunk = chunks.get(i);
+            assertFalse(chunk.start().isAfter(chunk.end()));
+            assertTrue(chunk.start().plusDays(89).compareTo(chunk.end()) >= 0);
+            if (i > 0) {
+                assertEquals(chunks.get(i - 1).end().plusDays(1), chunk.start());
+            }
+        }
+    }
+
+    @Test
+    void testSplit_ExactMultiple_NoEmptyTrailingChunk() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        List<DateChunk> chunks = DateChunk.split(start, start.plusDays(179), 90);
+
+        assertEquals(2, chunks.size());
+        assertEquals(start.plusDays(90), chunks.get(1).start());
+    }
+
+    @Test
+    void testSplit_StartAfterEnd_Throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DateChunk.split(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), 90));
+    }
+}
@@ -1,6 +1,9 @@
 package com.tefasfundapi.tefasFundAPI;
 
 import com.tefasfundapi.tefasFundAPI.dto.FundDto;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
 import com.tefasfundapi.tefasFundAPI.service.TefasService;
 import com.tefasfundapi.tefasFundAPI.controller.FundController;
 import org.junit.jupiter.api.Test;
@@ -9,12 +12,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -33,9 +39,14 @@ class FundControllerTest {
         dto.setFundCode("AAK");
         dto.setFundName("Test Fon");
 
-        when(tefasService.getFund(eq("AAK"), any())).thenReturn(Optional.of(dto));
+        when(tefasService.getFundAsync(eq("AAK"), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(dto)));
 
-        mockMvc.perform(get("/v1/funds/AAK"))
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.fundCode").value("AAK"));
@@ -43,9 +54,14 @@ class FundControllerTest {
 
     @Test
     void testGetFund_NotFound_Returns404() throws Exception {
-        when(tefasService.getFund(eq("INVALID"), any())).thenReturn(Optional.empty());
+        when(tefasService.getFundAsync(eq("INVALID"), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/INVALID"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/v1/funds/INVALID"))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("NOT_FOUND"));
     }
@@ -56,11 +72,44 @@ class FundControllerTest {
         dto.setFundCode("AAK");
         dto.setFundName("Test Fon");
 
-        when(tefasService.getFund(eq("AAK"), any())).thenReturn(Optional.of(dto));
+        when(tefasService.getFundAsync(eq("AAK"), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(dto)));
 
-        mockMvc.perform(get("/v1/funds/AAK").param("fields", "fundCode,fundName"))
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK").param("fields", "fundCode,fundName"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.fundCode").exists())
                 .andExpect(jsonPath("$.fundName").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFund_UpstreamTimeout_Returns504() throws Exception {
+        when(tefasService.getFundAsync(eq("AAK"), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.failedFuture(new TefasTimeoutException("fetchFunds", 45000)));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout());
+    }
+
+    @Test
+    void testGetFund_Overloaded_Returns503WithRetryAfter() throws Exception {
+        when(tefasService.getFundAsync(eq("AAK"), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.failedFuture(new TefasOverloadedException("queue full", 5)));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.errorCode").value("SERVICE_OVERLOADED"));
+    }
+}
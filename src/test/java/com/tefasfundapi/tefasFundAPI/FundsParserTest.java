@@ -1,6 +1,7 @@
 package com.tefasfundapi.tefasFundAPI;
 
 import com.tefasfundapi.tefasFundAPI.dto.FundDto;
+import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
 import com.tefasfundapi.tefasFundAPI.parser.FundsParser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -52,4 +53,41 @@ class FundsParserTest {
             parser.toFunds(html);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testToPerformanceDtos_DataWrapper_SkipsUnknownAndNestedFields() {
+        String json = "{\"draw\":1,\"meta\":{\"data\":[1,2]},\"data\":[" +
+                "{\"FONUNVAN\":\"Yedek Ad\",\"extra\":{\"FONKODU\":\"XXX\"},\"FONKODU\":\"AAK\"," +
+                "\"fonAdi\":\"Asıl Ad\",\"GETIRIORANI\":1.5}," +
+                "{\"FONKODU\":\"TTE\",\"getiri\":\"1,6770\"}" +
+                "]}";
+
+        List<FundPerformanceDto> result = parser.toPerformanceDtos(json);
+
+        assertEquals(2, result.size());
+        assertEquals("AAK", result.get(0).getFundCode());
+        assertEquals("Asıl Ad", result.get(0).getFundName());
+        assertEquals(1.5, result.get(0).getGetiri());
+        assertEquals("TTE", result.get(1).getFundCode());
+        assertNull(result.get(1).getFundName());
+        assertEquals(1.677, result.get(1).getGetiri());
+    }
+
+    @Test
+    void testToPerformanceDtos_TextGetiri_ParsesTurkishThousandsSeparator() {
+        String json = "{\"data\":[" +
+                "{\"FONKODU\":\"AAK\",\"getiri\":\"1.234,56\"}," +
+                "{\"FONKODU\":\"TTE\",\"getiri\":\"-\"}" +
+                "]}";
+
+        List<FundPerformanceDto> result = parser.toPerformanceDtos(json);
+
+        assertEquals(1234.56, result.get(0).getGetiri());
+        assertNull(result.get(1).getGetiri());
+    }
+
+    @Test
+    void testToPerformanceDtos_NoDataArray_ThrowsException() {
+        assertThrows(RuntimeException.class, () -> parser.toPerformanceDtos("{\"draw\":1}"));
+    }
+}
@@ -0,0 +1,158 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.client.HistoryClient;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamCircuitBreaker;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.exception.InvalidDateRangeException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+import com.tefasfundapi.tefasFundAPI.parser.HistoryParser;
+import com.tefasfundapi.tefasFundAPI.service.AdmissionControl;
+import com.tefasfundapi.tefasFundAPI.service.FundUniverse;
+import com.tefasfundapi.tefasFundAPI.service.NavCache;
+import com.tefasfundapi.tefasFundAPI.service.NavStore;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
+import com.tefasfundapi.tefasFundAPI.service.TefasServiceImpl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parçalı NAV çekimi: upstream gecikmesi sabitlenmiş bir HistoryClient ile
+ * uzun aralığın bütçe içinde bittiği, bütçeye sığmayan aralığın, dolu parça
+ * kuyruğunun ve fazla fon kodunun upstream'e gidilmeden reddedildiği; satırı
+ * olmayan bilinmeyen kodların önbelleğe yazılmadığı doğrulanır.
+ */
+public class HistoryChunkBudgetTest {
+
+    private static final long UPSTREAM_LATENCY_MS = 200;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @TempDir
+    Path dir;
+
+    /** Her parça için UPSTREAM_LATENCY_MS bekleyip parçanın ilk günü için tek satır döner. */
+    private class SlowHistoryClient extends HistoryClient {
+        SlowHistoryClient(PlaywrightConfig config) {
+            super(config, null, null, null, null, null);
+        }
+
+        @Override
+        public byte[] fetchHistoryJsonBatch(Collection<String> fundCodes, LocalDate start, LocalDate end,
+                Deadline deadline) {
+            upstreamCalls.incrementAndGet();
+            try {
+                Thread.sleep(UPSTREAM_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long millis = start.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            return ("{\"data\":[{\"TARIH\":\"" + millis + "\",\"FONKODU\":\"AAK\",\"FIYAT\":1.0}]}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private TefasServiceImpl service(int chunkQueueCapacity) {
+        return service(chunkQueueCapacity, false);
+    }
+
+    private TefasServiceImpl service(int chunkQueueCapacity, boolean cacheEnabled) {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.setRequestBudgetMs(2000);
+        config.getPool().setMaxSize(2);
+        config.getHistory().setChunkDays(90);
+        config.getHistory().setMaxParallelChunks(2);
+        config.getHistory().setChunkQueueCapacity(chunkQueueCapacity);
+        config.getHistory().setExpectedChunkMs(300);
+        config.getHistory().setCacheEnabled(cacheEnabled);
+        config.getHistory().setMaxBatchCodes(3);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UpstreamCircuitBreaker circuitBreaker = new UpstreamCircuitBreaker(config, registry);
+        AdmissionControl admissionControl = new AdmissionControl(config, registry);
+        // Evren yüklenmemiş: hiçbir kod bilinen sayılmaz
+        FundUniverse universe = new FundUniverse(null, null, config, admissionControl, circuitBreaker);
+        return new TefasServiceImpl(null, null, new SlowHistoryClient(config), new HistoryParser(), config,
+                new NavCache(config, new NavStore(dir)), universe, null, null, admissionControl, circuitBreaker);
+    }
+
+    @Test
+    void testLongRangeCompletesWithinBudget() {
+        TefasServiceImpl service = service(16);
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        LocalDate end = LocalDate.of(2023, 12, 31);
+
+        long startedAt = System.nanoTime();
+        Map<String, List<PriceRowDto>> rows = service.getFundNavBatch(Set.of("AAK"), start, end,
+                Priority.INTERACTIVE);
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000L;
+
+        // 365 gün -> 90 günlük 5 parça, 2'şer paralel -> 3 dalga
+        assertEquals(5, upstreamCalls.get());
+        assertEquals(5, rows.get("AAK").size());
+        assertTrue(elapsedMs < 2000, "elapsed " + elapsedMs + " ms");
+        assertTrue(elapsedMs < 5 * UPSTREAM_LATENCY_MS, "chunks did not run in parallel: " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testRangeThatCannotFitBudgetIsRejectedWithoutUpstreamCalls() {
+        TefasServiceImpl service = service(64);
+
+        // 10 yıl -> 41 parça, 21 dalga * 300 ms > 2000 ms
+        assertThrows(InvalidDateRangeException.class, () -> service.getFundNavBatch(Set.of("AAK"),
+                LocalDate.of(2014, 1, 1), LocalDate.of(2023, 12, 31), Priority.INTERACTIVE));
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testFullChunkQueueShedsLoad() {
+        TefasServiceImpl service = service(1);
+
+        // 5 parça: 2 thread'de çalışır, 1 kuyruğa girer, 4. parça reddedilir
+        TefasOverloadedException e = assertThrows(TefasOverloadedException.class,
+                () -> service.getFundNavBatch(Set.of("AAK"), LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31),
+                        Priority.INTERACTIVE));
+        assertTrue(e.getRetryAfterSeconds() > 0);
+    }
+
+    @Test
+    void testTooManyCodesAreRejectedWithoutUpstreamCalls() {
+        TefasServiceImpl service = service(16);
+
+        assertThrows(InvalidDateRangeException.class, () -> service.getFundNavBatch(Set.of("A1", "A2", "A3", "A4"),
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31), Priority.INTERACTIVE));
+        assertEquals(0, upstreamCalls.get());
+    }
+
+    @Test
+    void testUnknownCodesWithoutRowsAreNotCached() throws Exception {
+        TefasServiceImpl service = service(16, true);
+        LocalDate start = LocalDate.of(2023, 1, 1);
+
+        Map<String, List<PriceRowDto>> rows = service.getFundNavBatch(Set.of("AAK", "BOGUS"), start,
+                start.plusDays(30), Priority.INTERACTIVE);
+
+        assertEquals(1, rows.get("AAK").size());
+        assertTrue(rows.get("BOGUS").isEmpty());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("AAK.1.nav"), files.map(f -> f.getFileName().toString()).toList());
+        }
+    }
+}
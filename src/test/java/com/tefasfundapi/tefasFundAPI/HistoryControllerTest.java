@@ -2,6 +2,7 @@ package com.tefasfundapi.tefasFundAPI;
 
 import com.tefasfundapi.tefasFundAPI.dto.PagedResponse;
 import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.service.Priority;
 import com.tefasfundapi.tefasFundAPI.service.TefasService;
 import com.tefasfundapi.tefasFundAPI.controller.HistoryController;
 import org.junit.jupiter.api.Test;
@@ -10,14 +11,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,16 +49,46 @@ class HistoryControllerTest {
                 Arrays.asList(dto),
                 new PagedResponse.Meta(0, 20, 1, 1));
 
-        when(tefasService.getFundNav(eq("AAK"), any(), any(), any()))
-                .thenReturn(Optional.of(response));
+        when(tefasService.getFundNavAsync(eq("AAK"), any(), any(), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(response)));
 
-        mockMvc.perform(get("/v1/funds/AAK/nav")
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK/nav")
                 .param("start", "2024-01-01")
                 .param("end", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.data[0].fundCode").value("AAK"))
-                .andExpect(jsonPath("$.meta.page").value(0));
+                .andExpect(jsonPath("$.meta.page").value(0))
+                .andExpect(jsonPath("$.meta.stale").doesNotExist());
+    }
+
+    @Test
+    void testGetNav_StaleCache_FlagsMeta() throws Exception {
+        PriceRowDto dto = new PriceRowDto();
+        dto.setFundCode("AAK");
+        dto.setPrice(30.5);
+        dto.setDate(LocalDate.of(2024, 1, 1));
+
+        PagedResponse.Meta meta = new PagedResponse.Meta(0, 20, 1, 1);
+        meta.setStale(true);
+
+        when(tefasService.getFundNavAsync(eq("AAK"), any(), any(), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(new PagedResponse<>(List.of(dto), meta))));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/AAK/nav")
+                .param("start", "2024-01-01")
+                .param("end", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].fundCode").value("AAK"))
+                .andExpect(jsonPath("$.meta.stale").value(true));
     }
 
     @Test
@@ -62,14 +100,63 @@ class HistoryControllerTest {
                 .andExpect(jsonPath("$.error").value("BAD_REQUEST"));
     }
 
+    @Test
+    void testGetNavBatch_Success_ReturnsRowsPerFund() throws Exception {
+        PriceRowDto aak = new PriceRowDto();
+        aak.setFundCode("AAK");
+        aak.setPrice(30.5);
+        aak.setDate(LocalDate.of(2024, 1, 1));
+
+        Map<String, List<PriceRowDto>> response = new LinkedHashMap<>();
+        response.put("AAK", List.of(aak));
+        response.put("TTE", List.of());
+
+        when(tefasService.getFundNavBatchAsync(eq(Set.of("AAK", "TTE")), any(), any(), eq(Priority.INTERACTIVE)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/nav")
+                .param("codes", "AAK, TTE")
+                .param("start", "2024-01-01")
+                .param("end", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.AAK[0].fundCode").value("AAK"))
+                .andExpect(jsonPath("$.TTE").isEmpty());
+    }
+
     @Test
     void testGetNav_NotFound_Returns404() throws Exception {
-        when(tefasService.getFundNav(any(), any(), any(), any()))
-                .thenReturn(Optional.empty());
+        when(tefasService.getFundNavAsync(any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
-        mockMvc.perform(get("/v1/funds/INVALID/nav")
+        MvcResult result = mockMvc.perform(get("/v1/funds/INVALID/nav")
                 .param("start", "2024-01-01")
                 .param("end", "2024-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetNavBatch_BulkPriorityHeader_PassedToService() throws Exception {
+        when(tefasService.getFundNavBatchAsync(eq(Set.of("AAK")), any(), any(), eq(Priority.BULK)))
+                .thenReturn(CompletableFuture.completedFuture(Map.of("AAK", List.of())));
+
+        MvcResult result = mockMvc.perform(get("/v1/funds/nav")
+                .param("codes", "AAK")
+                .param("start", "2024-01-01")
+                .param("end", "2024-01-31")
+                .header("X-Priority", "BULK"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.AAK").isEmpty());
+    }
+}
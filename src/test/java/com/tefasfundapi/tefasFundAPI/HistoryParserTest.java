@@ -3,10 +3,13 @@ package com.tefasfundapi.tefasFundAPI;
 import org.junit.jupiter.api.Test;
 
 import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
 import com.tefasfundapi.tefasFundAPI.parser.HistoryParser;
+import com.tefasfundapi.tefasFundAPI.parser.RowFilter;
 
 import org.junit.jupiter.api.BeforeEach;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -49,4 +52,51 @@ public class HistoryParserTest {
 
     }
 
+    @Test
+    void testToPriceRows_WithFilter_SkipsOtherFunds() {
+        String json = "{\"data\":[" +
+                "{\"FONKODU\":\"TTE\",\"TARIH\":\"1704067200000\",\"FIYAT\":1.0,\"nested\":{\"a\":[1,2]}}," +
+                "{\"TARIH\":\"1704067200000\",\"FONKODU\":\"aak\",\"FIYAT\":30.5}," +
+                "{\"FIYAT\":2.0,\"FONKODU\":\"IPB\",\"FONUNVAN\":\"Atlanır\"}" +
+                "]}";
+
+        List<PriceRowDto> result = historyParser.toPriceRows(json, RowFilter.fundCodes(List.of("AAK")));
+
+        assertEquals(1, result.size());
+        assertEquals("aak", result.get(0).getFundCode());
+        assertEquals(30.5, result.get(0).getPrice());
+    }
+
+    @Test
+    void testToPriceRows_WithDateRange_KeepsRowsInsideRange() {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        long millis = day.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String json = "[" +
+                "{\"TARIH\":\"" + millis + "\",\"FONKODU\":\"AAK\"}," +
+                "{\"TARIH\":\"" + (millis + 86_400_000L * 10) + "\",\"FONKODU\":\"AAK\"}" +
+                "]";
+
+        List<PriceRowDto> result = historyParser.toPriceRows(json, RowFilter.all().between(day, day.plusDays(5)));
+
+        assertEquals(1, result.size());
+        assertEquals(day, result.get(0).getDate());
+    }
+
+    @Test
+    void testToPriceRows_FromUtf8Bytes() {
+        byte[] json = ("{\"data\":[{\"TARIH\":\"1704067200000\",\"FONKODU\":\"AAK\","
+                + "\"FONUNVAN\":\"ATA PORTFÖY ÇOKLU VARLIK\",\"FIYAT\":30.5}]}").getBytes(StandardCharsets.UTF_8);
+
+        List<PriceRowDto> result = historyParser.toPriceRows(json);
+
+        assertEquals(1, result.size());
+        assertEquals("ATA PORTFÖY ÇOKLU VARLIK", result.get(0).getFundName());
+    }
+
+    @Test
+    void testToPriceRows_HtmlBytes_ThrowsWafBlocked() {
+        byte[] html = " \r\n<html><body>Request Rejected</body></html>".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(TefasWafBlockedException.class, () -> historyParser.toPriceRows(html));
+    }
 }
@@ -0,0 +1,63 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.tefasfundapi.tefasFundAPI.service.DateChunk;
+import com.tefasfundapi.tefasFundAPI.service.IntervalSet;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalSetTest {
+
+    private static LocalDate d(int month, int day) {
+        return LocalDate.of(2024, month, day);
+    }
+
+    @Test
+    void testAdd_OverlappingAndAdjacent_AreMerged() {
+        IntervalSet set = new IntervalSet();
+        set.add(d(1, 10), d(1, 20));
+        set.add(d(1, 21), d(1, 25));
+        set.add(d(1, 1), d(1, 12));
+        set.add(d(2, 1), d(2, 5));
+
+        assertEquals(List.of(new DateChunk(d(1, 1), d(1, 25)), new DateChunk(d(2, 1), d(2, 5))),
+                set.intervals());
+    }
+
+    @Test
+    void testAdd_SpanningSeveralRanges_CollapsesToOne() {
+        IntervalSet set = new IntervalSet();
+        set.add(d(1, 5), d(1, 6));
+        set.add(d(1, 10), d(1, 12));
+        set.add(d(1, 20), d(1, 22));
+        set.add(d(1, 1), d(1, 31));
+
+        assertEquals(List.of(new DateChunk(d(1, 1), d(1, 31))), set.intervals());
+    }
+
+    @Test
+    void testGaps_ReturnsOnlyUncoveredDays() {
+        IntervalSet set = new IntervalSet();
+        set.add(d(1, 5), d(1, 10));
+        set.add(d(1, 20), d(1, 25));
+
+        assertEquals(List.of(
+                new DateChunk(d(1, 1), d(1, 4)),
+                new DateChunk(d(1, 11), d(1, 19)),
+                new DateChunk(d(1, 26), d(1, 31))),
+                set.gaps(d(1, 1), d(1, 31)));
+        assertEquals(List.of(new DateChunk(d(1, 11), d(1, 12))), set.gaps(d(1, 8), d(1, 12)));
+        assertTrue(set.covers(d(1, 6), d(1, 9)));
+    }
+
+    @Test
+    void testGaps_EmptySet_ReturnsWholeRange() {
+        IntervalSet set = new IntervalSet();
+
+        assertEquals(List.of(new DateChunk(d(3, 1), d(3, 31))), set.gaps(d(3, 1), d(3, 31)));
+        assertTrue(set.isEmpty());
+    }
+}
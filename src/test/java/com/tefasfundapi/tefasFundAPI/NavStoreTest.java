@@ -0,0 +1,124 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.tefasfundapi.tefasFundAPI.dto.PriceRowDto;
+import com.tefasfundapi.tefasFundAPI.service.DateChunk;
+import com.tefasfundapi.tefasFundAPI.service.NavStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static PriceRowDto row(LocalDate date, double price) {
+        PriceRowDto dto = new PriceRowDto();
+        dto.setFundCode("AAK");
+        dto.setFundName("ATA PORTFÖY");
+        dto.setDate(date);
+        dto.setPrice(price);
+        dto.setOutstandingShares(1_000_000L);
+        dto.setTotalValue(price * 1_000_000);
+        return dto;
+    }
+
+    @Test
+    void testRead_ReturnsSortedSliceWithNullsPreserved() {
+        NavStore store = new NavStore(dir);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        store.write("AAK", start, start.plusDays(9), List.of(
+                row(start.plusDays(4), 1.5), row(start, 1.1), row(start.plusDays(8), 1.9)));
+
+        List<PriceRowDto> rows = store.read("AAK", start.plusDays(1), start.plusDays(8));
+
+        assertEquals(2, rows.size());
+        assertEquals(start.plusDays(4), rows.get(0).getDate());
+        assertEquals(1.9, rows.get(1).getPrice());
+        assertEquals("ATA PORTFÖY", rows.get(0).getFundName());
+        assertEquals(1_000_000L, rows.get(0).getOutstandingShares());
+        assertNull(rows.get(0).getHolderCount());
+    }
+
+    @Test
+    void testWrite_MergesRowsAndCoverage_AndSurvivesReopen() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        NavStore store = new NavStore(dir);
+        store.write("AAK", start, start.plusDays(4), List.of(row(start, 1.0), row(start.plusDays(2), 1.2)));
+        store.write("AAK", start.plusDays(10), start.plusDays(14),
+                List.of(row(start.plusDays(2), 1.25), row(start.plusDays(12), 1.3)));
+
+        NavStore reopened = new NavStore(dir);
+
+        assertEquals(List.of(new DateChunk(start.plusDays(5), start.plusDays(9))),
+                reopened.gaps("AAK", start, start.plusDays(14)));
+        List<PriceRowDto> rows = reopened.read("AAK", start, start.plusDays(14));
+        assertEquals(3, rows.size());
+        assertEquals(1.25, rows.get(1).getPrice());
+        assertTrue(reopened.read("TTE", start, start.plusDays(14)).isEmpty());
+    }
+
+    @Test
+    void testBatchWrite_WritesOneGenerationAndDropsTheOldFile() throws Exception {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        NavStore store = new NavStore(dir);
+        store.write("AAK", start, start.plusDays(1), List.of(row(start, 1.0)));
+        store.write("AAK", List.of(new DateChunk(start.plusDays(5), start.plusDays(6)),
+                new DateChunk(start.plusDays(10), start.plusDays(11))),
+                List.of(row(start.plusDays(10), 1.3), row(start.plusDays(5), 1.1), row(start.plusDays(5), 1.15)));
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("AAK.2.nav"), files.map(f -> f.getFileName().toString()).toList());
+        }
+        List<PriceRowDto> rows = new NavStore(dir).read("AAK", start, start.plusDays(11));
+        assertEquals(3, rows.size());
+        assertEquals(1.15, rows.get(1).getPrice());
+        assertEquals(List.of(new DateChunk(start.plusDays(2), start.plusDays(4)),
+                new DateChunk(start.plusDays(7), start.plusDays(9))), store.gaps("AAK", start, start.plusDays(11)));
+    }
+
+    @Test
+    void testLoad_PicksNewestReadableGenerationAndCleansUpOthers() throws Exception {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        new NavStore(dir).write("AAK", start, start, List.of(row(start, 1.0)));
+        // Eski tek dosya adı 0. nesil sayılır; yarım kalmış bir yazım okunamaz
+        Files.move(dir.resolve("AAK.1.nav"), dir.resolve("AAK.nav"));
+        Files.write(dir.resolve("AAK.7.nav"), new byte[] { 1, 2, 3 });
+
+        NavStore reopened = new NavStore(dir);
+        assertEquals(1.0, reopened.read("AAK", start, start).get(0).getPrice());
+        reopened.write("AAK", start.plusDays(1), start.plusDays(1), List.of(row(start.plusDays(1), 1.1)));
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("AAK.1.nav"), files.map(f -> f.getFileName().toString()).toList());
+        }
+        assertEquals(2, new NavStore(dir).read("AAK", start, start.plusDays(1)).size());
+    }
+
+    @Test
+    void testSegments_UnknownFundsAreNotKeptAndOpenFundsAreBounded() {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        NavStore store = new NavStore(dir, 2);
+
+        // Dosyası olmayan kodlar okunabilir ama bellekte yer tutmaz
+        assertTrue(store.read("NOPE", start, start).isEmpty());
+        assertEquals(List.of(new DateChunk(start, start)), store.gaps("NOPE", start, start));
+        assertEquals(0, store.openFunds());
+
+        store.write("AAK", start, start, List.of(row(start, 1.0)));
+        store.write("TTE", start, start, List.of(row(start, 2.0)));
+        store.write("IPB", start, start, List.of(row(start, 3.0)));
+        assertEquals(2, store.openFunds());
+
+        // Bırakılan fon gerektiğinde diskten yeniden map edilir
+        assertEquals(1.0, store.read("AAK", start, start).get(0).getPrice());
+        assertEquals(2, store.openFunds());
+    }
+}
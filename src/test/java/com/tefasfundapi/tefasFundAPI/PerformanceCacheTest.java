@@ -0,0 +1,65 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.dto.FundPerformanceDto;
+import com.tefasfundapi.tefasFundAPI.service.PerformanceCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerformanceCacheTest {
+
+    private static FundPerformanceDto dto(String code, Double getiri) {
+        FundPerformanceDto dto = new FundPerformanceDto();
+        dto.setFundCode(code);
+        dto.setFundName(code + " FONU");
+        dto.setGetiri(getiri);
+        return dto;
+    }
+
+    @Test
+    void testTable_FindIsCaseInsensitiveAndKeepsNullReturn() {
+        PerformanceCache.PerformanceTable table = PerformanceCache.PerformanceTable.of(
+                List.of(dto("AAK", 12.5), dto("TTE", null), dto("AAK", 99.0)));
+
+        assertEquals(2, table.size());
+        assertEquals(12.5, table.find("aak").orElseThrow().getGetiri());
+        assertNull(table.find("TTE").orElseThrow().getGetiri());
+        assertTrue(table.find("XYZ").isEmpty());
+    }
+
+    @Test
+    void testCache_EvictsLeastRecentlyUsedWindow() {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getPerformance().setMaxWindows(2);
+        PerformanceCache cache = new PerformanceCache(config);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        PerformanceCache.PerformanceTable table = PerformanceCache.PerformanceTable.of(List.of(dto("AAK", 1.0)));
+
+        cache.put(start, start.plusMonths(1), table);
+        cache.put(start, start.plusMonths(3), table);
+        assertNotNull(cache.get(start, start.plusMonths(1)));
+        cache.put(start, start.plusMonths(6), table);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(start, start.plusMonths(1)));
+        assertNull(cache.get(start, start.plusMonths(3)));
+    }
+
+    @Test
+    void testCache_KeepsExpiredOpenWindowForStaleReads() {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getPerformance().setOpenWindowTtlMs(0);
+        PerformanceCache cache = new PerformanceCache(config);
+        LocalDate end = LocalDate.now().plusDays(1);
+        PerformanceCache.PerformanceTable table = PerformanceCache.PerformanceTable.of(List.of(dto("AAK", 1.0)));
+
+        cache.put(end.minusMonths(1), end, table);
+
+        assertNull(cache.get(end.minusMonths(1), end));
+        assertSame(table, cache.getStale(end.minusMonths(1), end));
+    }
+}
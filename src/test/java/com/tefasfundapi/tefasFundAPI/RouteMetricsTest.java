@@ -0,0 +1,33 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.client.RouteMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteMetricsTest {
+
+    @Test
+    void testRecordsOneTaggedCounterPerOutcomeAndType() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RouteMetrics metrics = new RouteMetrics(registry);
+
+        metrics.record("document", true);
+        metrics.record("document", true);
+        metrics.record("image", false);
+        metrics.record(null, false);
+
+        assertEquals(2, metrics.allowedCount());
+        assertEquals(2, metrics.blockedCount());
+        assertEquals(2.0, registry.get("tefas.playwright.requests")
+                .tag("outcome", "allowed").tag("type", "document").counter().count());
+        assertEquals(1.0, registry.get("tefas.playwright.requests")
+                .tag("outcome", "blocked").tag("type", "other").counter().count());
+        // Tek metrik ailesi: eski .total sayacı yok
+        assertEquals(3, registry.getMeters().size());
+        assertNull(registry.find("tefas.playwright.requests.total").counter());
+    }
+}
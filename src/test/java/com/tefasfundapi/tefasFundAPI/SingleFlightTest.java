@@ -0,0 +1,117 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void testExecute_ConcurrentSameKey_LoadsOnce() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("AAK", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> flight.execute("AAK", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Takipçilerin bekleme durumuna geçmesi için kısa süre tanı
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_AfterCompletion_LoadsAgain() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("AAK", loads::incrementAndGet);
+        flight.execute("AAK", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testExecute_LoaderThrows_PropagatesAndReleasesKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("AAK", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(0, flight.inFlightCount());
+        assertEquals("ok", flight.execute("AAK", () -> "ok"));
+    }
+
+    @Test
+    void testExecute_JoinerWaitsOnlyForItsOwnDeadline() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> flight.execute("AAK", () -> {
+                loaderStarted.countDown();
+                await(release);
+                return "result";
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            long startedAt = System.nanoTime();
+            assertThrows(TefasTimeoutException.class,
+                    () -> flight.execute("AAK", Deadline.after(100), () -> "other"));
+            assertTrue((System.nanoTime() - startedAt) / 1_000_000L < 2_000);
+
+            // Bekleyenin zaman aşımı yüklemeyi etkilemez
+            release.countDown();
+            assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
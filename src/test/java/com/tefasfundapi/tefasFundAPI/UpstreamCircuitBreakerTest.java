@@ -0,0 +1,126 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.client.UpstreamCircuitBreaker;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamEndpoint;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasCircuitOpenException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasParseException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasUpstreamTimeoutException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamCircuitBreakerTest {
+
+    private static UpstreamCircuitBreaker breaker(int failureThreshold, long openMs) {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getCircuitBreaker().setFailureThreshold(failureThreshold);
+        config.getCircuitBreaker().setOpenMs(openMs);
+        return new UpstreamCircuitBreaker(config, new SimpleMeterRegistry());
+    }
+
+    private static void fail(UpstreamCircuitBreaker breaker, RuntimeException error) {
+        assertThrows(error.getClass(), () -> breaker.call(UpstreamEndpoint.HISTORY, "op", () -> {
+            throw error;
+        }));
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailuresAndFailsFastPerEndpoint() {
+        UpstreamCircuitBreaker breaker = breaker(3, 60_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        fail(breaker, new TefasWafBlockedException("<html>"));
+        fail(breaker, new TefasWafBlockedException("<html>"));
+        // Başarı sayacı sıfırlar
+        assertEquals("ok", breaker.call(UpstreamEndpoint.HISTORY, "op", () -> "ok"));
+        fail(breaker, new TefasWafBlockedException("<html>"));
+        fail(breaker, new TefasUpstreamTimeoutException("op", 10_000));
+        // Sayılmayan hata devreyi açmaz, sayacı da sıfırlamaz
+        fail(breaker, new TefasParseException("bad json"));
+        fail(breaker, new TefasWafBlockedException("<html>"));
+
+        TefasCircuitOpenException e = assertThrows(TefasCircuitOpenException.class,
+                () -> breaker.call(UpstreamEndpoint.HISTORY, "op", calls::incrementAndGet));
+        assertEquals(0, calls.get());
+        assertEquals(60, e.getRetryAfterSeconds());
+        assertEquals("UPSTREAM_UNAVAILABLE", e.getErrorCode());
+        assertThrows(TefasCircuitOpenException.class,
+                () -> breaker.checkAvailable(UpstreamEndpoint.HISTORY, "op"));
+
+        // Diğer endpoint'ler etkilenmez
+        assertEquals("ok", breaker.call(UpstreamEndpoint.PERFORMANCE, "op", () -> "ok"));
+    }
+
+    @Test
+    void testHalfOpenLetsSingleProbeThroughAndClosesOnSuccess() throws Exception {
+        UpstreamCircuitBreaker breaker = breaker(1, 50);
+        fail(breaker, new TefasWafBlockedException("<html>"));
+        Thread.sleep(80);
+
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        CountDownLatch releaseProbe = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> probe = executor.submit(() -> breaker.call(UpstreamEndpoint.HISTORY, "probe", () -> {
+                probeStarted.countDown();
+                try {
+                    releaseProbe.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "probe";
+            }));
+            probeStarted.await();
+
+            // Deneme sürerken diğer çağrılar upstream'e gitmez
+            assertThrows(TefasCircuitOpenException.class,
+                    () -> breaker.call(UpstreamEndpoint.HISTORY, "op", () -> "second"));
+            releaseProbe.countDown();
+            assertEquals("probe", probe.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("ok", breaker.call(UpstreamEndpoint.HISTORY, "op", () -> "ok"));
+    }
+
+    @Test
+    void testFailedProbeReopensCircuit() throws Exception {
+        UpstreamCircuitBreaker breaker = breaker(1, 50);
+        fail(breaker, new TefasWafBlockedException("<html>"));
+        Thread.sleep(80);
+
+        fail(breaker, new TefasUpstreamTimeoutException("probe", 10_000));
+        assertThrows(TefasCircuitOpenException.class,
+                () -> breaker.call(UpstreamEndpoint.HISTORY, "op", () -> "ok"));
+    }
+
+    @Test
+    void testLocalTimeoutsDoNotOpenCircuit() throws Exception {
+        UpstreamCircuitBreaker breaker = breaker(2, 60_000);
+
+        // Havuz, kabul kuyruğu ve bütçe beklemeleri upstream hatası değildir
+        for (int i = 0; i < 5; i++) {
+            fail(breaker, new TefasTimeoutException("browserPool.acquire", 5_000));
+        }
+        fail(breaker, new TefasTimeoutException("admission", 10_000));
+        assertEquals("ok", breaker.call(UpstreamEndpoint.HISTORY, "op", () -> "ok"));
+
+        // Upstream zaman aşımları sayılmaya devam eder
+        fail(breaker, new TefasUpstreamTimeoutException("waitForResponse", 10_000));
+        fail(breaker, new TefasUpstreamTimeoutException("waitForResponse", 10_000));
+        assertThrows(TefasCircuitOpenException.class,
+                () -> breaker.checkAvailable(UpstreamEndpoint.HISTORY, "op"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.tefasfundapi.tefasFundAPI;
+
+import org.junit.jupiter.api.Test;
+
+import com.tefasfundapi.tefasFundAPI.client.Deadline;
+import com.tefasfundapi.tefasFundAPI.client.UpstreamRateLimiter;
+import com.tefasfundapi.tefasFundAPI.config.PlaywrightConfig;
+import com.tefasfundapi.tefasFundAPI.exception.TefasOverloadedException;
+import com.tefasfundapi.tefasFundAPI.exception.TefasWafBlockedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UpstreamRateLimiterTest {
+
+    @Test
+    void testWafBlockCutsRateOnceAndSuccessRaisesItSlowly() {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getRateLimit().setInitialRate(8);
+        config.getRateLimit().setDecreaseHoldMs(60_000);
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(config, new SimpleMeterRegistry());
+
+        assertThrows(TefasWafBlockedException.class, () -> limiter.call("op", Deadline.after(5000), () -> {
+            throw new TefasWafBlockedException("<html>");
+        }));
+        assertEquals(4.0, limiter.currentRate(), 1e-9);
+
+        // Aynı patlamadan gelen ikinci engel hızı tekrar düşürmez
+        assertThrows(TefasWafBlockedException.class, () -> limiter.call("op", Deadline.after(5000), () -> {
+            throw new TefasWafBlockedException("<html>");
+        }));
+        assertEquals(4.0, limiter.currentRate(), 1e-9);
+
+        assertEquals("ok", limiter.call("op", Deadline.after(5000), () -> "ok"));
+        assertEquals(4.05, limiter.currentRate(), 1e-9);
+    }
+
+    @Test
+    void testThrottlesInsteadOfWaitingPastDeadline() {
+        PlaywrightConfig config = new PlaywrightConfig();
+        config.getRateLimit().setInitialRate(1);
+        config.getRateLimit().setBurst(1);
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(config, new SimpleMeterRegistry());
+
+        assertEquals("first", limiter.call("op", Deadline.after(5000), () -> "first"));
+        TefasOverloadedException e = assertThrows(TefasOverloadedException.class,
+                () -> limiter.call("op", Deadline.after(100), () -> "never"));
+        assertEquals(1, e.getRetryAfterSeconds());
+    }
+}